@@ -14,6 +14,8 @@ import java.util.Set;
 public class ExperimentDto {
     private final String name;
     private final int seed;
+    private final int bins;
+    private final int hashVersion;
     private final String description;
     private final String filter;
     private final Set<String> hashAttributes;
@@ -29,6 +31,8 @@ public class ExperimentDto {
     @JsonCreator
     public ExperimentDto(@JsonProperty("name") String name,
                          @JsonProperty("seed") int seed,
+                         @JsonProperty("bins") int bins,
+                         @JsonProperty("hashVersion") int hashVersion,
                          @JsonProperty("description") String description,
                          @JsonProperty("filter") String filter,
                          @JsonProperty("hashAttributes") Set<String> hashAttributes,
@@ -42,6 +46,8 @@ public class ExperimentDto {
                          @JsonProperty("overrides") List<TreatmentOverrideDto> overrides) {
         this.name = name;
         this.seed = seed;
+        this.bins = bins;
+        this.hashVersion = hashVersion;
         this.description = description;
         this.filter = filter;
         this.hashAttributes = hashAttributes;
@@ -63,6 +69,14 @@ public class ExperimentDto {
         return seed;
     }
 
+    public int getBins() {
+        return bins;
+    }
+
+    public int getHashVersion() {
+        return hashVersion;
+    }
+
     public String getDescription() {
         return description;
     }
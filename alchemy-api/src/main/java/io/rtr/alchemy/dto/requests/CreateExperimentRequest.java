@@ -15,6 +15,8 @@ public class CreateExperimentRequest {
     @NotNull
     private final String name;
     private final Integer seed;
+    private final Integer bins;
+    private final Integer hashVersion;
     private final String description;
     private final String filter;
     private final Set<String> hashAttributes;
@@ -28,6 +30,8 @@ public class CreateExperimentRequest {
 
     public CreateExperimentRequest(@JsonProperty("name") String name,
                                    @JsonProperty("seed") Integer seed,
+                                   @JsonProperty("bins") Integer bins,
+                                   @JsonProperty("hashVersion") Integer hashVersion,
                                    @JsonProperty("description") String description,
                                    @JsonProperty("filter") String filter,
                                    @JsonProperty("hashAttributes") Set<String> hashAttributes,
@@ -37,6 +41,8 @@ public class CreateExperimentRequest {
                                    @JsonProperty("overrides") List<TreatmentOverrideRequest> overrides) {
         this.name = name;
         this.seed = seed;
+        this.bins = bins;
+        this.hashVersion = hashVersion;
         this.description = description;
         this.filter = filter;
         this.hashAttributes = hashAttributes;
@@ -54,6 +60,14 @@ public class CreateExperimentRequest {
         return seed;
     }
 
+    public Integer getBins() {
+        return bins;
+    }
+
+    public Integer getHashVersion() {
+        return hashVersion;
+    }
+
     public String getDescription() {
         return description;
 
@@ -12,6 +12,8 @@ import java.util.Set;
  */
 public class UpdateExperimentRequest {
     private Optional<Integer> seed;
+    private Optional<Integer> bins;
+    private Optional<Integer> hashVersion;
     private Optional<String> description;
     private Optional<String> filter;
     private Optional<Set<String>> hashAttributes;
@@ -29,6 +31,8 @@ public class UpdateExperimentRequest {
     public UpdateExperimentRequest() { }
 
     public UpdateExperimentRequest(Optional<Integer> seed,
+                                   Optional<Integer> bins,
+                                   Optional<Integer> hashVersion,
                                    Optional<String> description,
                                    Optional<String> filter,
                                    Optional<Set<String>> hashAttributes,
@@ -37,6 +41,8 @@ public class UpdateExperimentRequest {
                                    Optional<List<AllocateRequest>> allocations,
                                    Optional<List<TreatmentOverrideRequest>> overrides) {
         this.seed = seed;
+        this.bins = bins;
+        this.hashVersion = hashVersion;
         this.description = description;
         this.filter = filter;
         this.hashAttributes = hashAttributes;
@@ -49,6 +55,14 @@ public class UpdateExperimentRequest {
         return seed;
     }
 
+    public Optional<Integer> getBins() {
+        return bins;
+    }
+
+    public Optional<Integer> getHashVersion() {
+        return hashVersion;
+    }
+
     public Optional<String> getDescription() {
         return description;
     }
@@ -82,6 +96,14 @@ public class UpdateExperimentRequest {
         this.seed = seed;
     }
 
+    public void setBins(Optional<Integer> bins) {
+        this.bins = bins;
+    }
+
+    public void setHashVersion(Optional<Integer> hashVersion) {
+        this.hashVersion = hashVersion;
+    }
+
     public void setDescription(Optional<String> description) {
         this.description = description;
     }
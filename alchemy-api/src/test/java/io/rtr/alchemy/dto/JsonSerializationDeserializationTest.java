@@ -89,6 +89,8 @@ public class JsonSerializationDeserializationTest {
         assertJson(new ExperimentDto(
             "my_experiment",
             0,
+            100,
+            1,
             "my new experiment",
             "identified",
             Sets.<String>newLinkedHashSet(),
@@ -167,6 +169,8 @@ public class JsonSerializationDeserializationTest {
             new CreateExperimentRequest(
                 "my_experiment",
                 0,
+                10000,
+                2,
                 "my new experiment",
                 "identified",
                 Sets.<String>newLinkedHashSet(),
@@ -202,6 +206,8 @@ public class JsonSerializationDeserializationTest {
         assertJson(
             new UpdateExperimentRequest(
                     Optional.<Integer>absent(),
+                    Optional.of(10000),
+                    Optional.of(2),
                     Optional.of("my new experiment"),
                     Optional.of("identified"),
                     Optional.<Set<String>>of(Sets.<String>newLinkedHashSet()),
@@ -13,6 +13,7 @@ import io.rtr.alchemy.client.builder.GetExperimentsRequestBuilder;
 import io.rtr.alchemy.client.builder.UpdateAllocationsRequestBuilder;
 import io.rtr.alchemy.client.builder.UpdateExperimentRequestBuilder;
 import io.rtr.alchemy.client.builder.UpdateTreatmentRequestBuilder;
+import io.rtr.alchemy.dto.identities.Identities;
 import io.rtr.alchemy.dto.identities.IdentityDto;
 import io.rtr.alchemy.dto.models.AllocationDto;
 import io.rtr.alchemy.dto.models.ExperimentDto;
@@ -33,6 +34,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.UriBuilder;
 import java.lang.reflect.Type;
 import java.net.URI;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -56,6 +58,7 @@ public class AlchemyClient {
     private static final String PARAM_TREATMENT_NAME = "treatmentName";
     private static final String PARAM_OVERRIDE_NAME = "overrideName";
     private static final String PARAM_IDENTITY_TYPE_NAME = "identityType";
+    private static final String PARAM_EXPERIMENT = "experiment";
 
     private static final String ENDPOINT_EXPERIMENTS = "/experiments";
     private static final String ENDPOINT_EXPERIMENT = "/experiments/{experimentName}";
@@ -66,6 +69,7 @@ public class AlchemyClient {
     private static final String ENDPOINT_OVERRIDE = "/experiments/{experimentName}/overrides/{overrideName}";
     private static final String ENDPOINT_ACTIVE_TREATMENT = "/active/experiments/{experimentName}/treatment";
     private static final String ENDPOINT_ACTIVE_TREATMENTS = "/active/treatments";
+    private static final String ENDPOINT_ACTIVE_TREATMENTS_BATCH = "/active/treatments/batch";
     private static final String ENDPOINT_METADATA_IDENTITY_TYPES = "/metadata/identityTypes";
     private static final String ENDPOINT_METADATA_IDENTITY_TYPE_SCHEMA = "/metadata/identityTypes/{identityType}/schema";
     private static final String ENDPOINT_METADATA_IDENTITY_TYPE_ATTRIBUTES = "/metadata/identityTypes/{identityType}/attributes";
@@ -346,6 +350,31 @@ public class AlchemyClient {
                 );
     }
 
+    /**
+     * Returns the active treatments of only the named experiments for an identity
+     */
+    public Map<String, TreatmentDto> getActiveTreatments(IdentityDto identity, Collection<String> experimentNames) {
+        final ListMultimap<String, Object> queryParams = ArrayListMultimap.create();
+        queryParams.putAll(PARAM_EXPERIMENT, experimentNames);
+
+        return
+            resource(ENDPOINT_ACTIVE_TREATMENTS, queryParams)
+                .post(
+                    map(String.class, TreatmentDto.class), identity
+                );
+    }
+
+    /**
+     * Returns the active treatments of each of a list of identities, in the same order, in a single request
+     */
+    public List<Map<String, TreatmentDto>> getActiveTreatments(Identities identities) {
+        return
+            resource(ENDPOINT_ACTIVE_TREATMENTS_BATCH)
+                .post(
+                    new GenericType<List<Map<String, TreatmentDto>>>() { }, identities
+                );
+    }
+
     public void deleteExperiment(String experimentName) {
         resource(
             ENDPOINT_EXPERIMENT,
@@ -15,6 +15,8 @@ public class CreateExperimentRequestBuilder {
     private final String name;
     private final WebResource.Builder builder;
     private Integer seed;
+    private Integer bins;
+    private Integer hashVersion;
     private String description;
     private String filter;
     private Set<String> hashAttributes;
@@ -36,6 +38,16 @@ public class CreateExperimentRequestBuilder {
         return this;
     }
 
+    public CreateExperimentRequestBuilder setBins(int bins) {
+        this.bins = bins;
+        return this;
+    }
+
+    public CreateExperimentRequestBuilder setHashVersion(int hashVersion) {
+        this.hashVersion = hashVersion;
+        return this;
+    }
+
     public CreateExperimentRequestBuilder setDescription(String description) {
         this.description = description;
         return this;
@@ -91,6 +103,8 @@ public class CreateExperimentRequestBuilder {
             new CreateExperimentRequest(
                 name,
                 seed,
+                bins,
+                hashVersion,
                 description,
                 filter,
                 hashAttributes,
@@ -15,6 +15,8 @@ import java.util.Set;
 public class UpdateExperimentRequestBuilder {
     private final WebResource.Builder builder;
     private Optional<Integer> seed;
+    private Optional<Integer> bins;
+    private Optional<Integer> hashVersion;
     private Optional<String> description;
     private Optional<String> filter;
     private Optional<Set<String>> hashAttributes;
@@ -32,6 +34,16 @@ public class UpdateExperimentRequestBuilder {
         return this;
     }
 
+    public UpdateExperimentRequestBuilder setBins(int bins) {
+        this.bins = Optional.of(bins);
+        return this;
+    }
+
+    public UpdateExperimentRequestBuilder setHashVersion(int hashVersion) {
+        this.hashVersion = Optional.of(hashVersion);
+        return this;
+    }
+
     public UpdateExperimentRequestBuilder setDescription(String description) {
         this.description = Optional.fromNullable(description);
         return this;
@@ -81,6 +93,8 @@ public class UpdateExperimentRequestBuilder {
         builder.post(
             new UpdateExperimentRequest(
                 seed,
+                bins,
+                hashVersion,
                 description,
                 filter,
                 hashAttributes,
@@ -1,9 +1,11 @@
 package io.rtr.alchemy.client;
 
 import com.fasterxml.jackson.module.jsonSchema.JsonSchema;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
 import io.rtr.alchemy.client.dto.UserDto;
 import io.rtr.alchemy.client.identities.User;
+import io.rtr.alchemy.dto.identities.Identities;
 import io.rtr.alchemy.dto.identities.IdentityDto;
 import io.rtr.alchemy.dto.models.AllocationDto;
 import io.rtr.alchemy.dto.models.ExperimentDto;
@@ -378,6 +380,47 @@ public class AlchemyClientTest {
         assertEquals("control", treatments.get("exp").getName());
     }
 
+    @Test
+    public void testGetActiveTreatmentsSubset() {
+        client
+            .createExperiment("exp")
+            .addTreatment("control")
+            .addOverride("override", "control", "identified")
+            .activate()
+            .apply();
+
+        client
+            .createExperiment("other")
+            .addTreatment("control")
+            .addOverride("override", "control", "identified")
+            .activate()
+            .apply();
+
+        final Map<String, TreatmentDto> treatments =
+            client.getActiveTreatments(new UserDto("foo"), ImmutableList.of("exp", "missing"));
+        assertEquals(1, treatments.size());
+        assertEquals("control", treatments.get("exp").getName());
+    }
+
+    @Test
+    public void testGetActiveTreatmentsBatch() {
+        client
+            .createExperiment("exp")
+            .addTreatment("control")
+            .addOverride("override", "control", "identified")
+            .activate()
+            .apply();
+
+        final List<Map<String, TreatmentDto>> treatments =
+            client.getActiveTreatments(Identities.of(new UserDto("foo"), new UserDto("bar")));
+        assertEquals(2, treatments.size());
+
+        for (final Map<String, TreatmentDto> identityTreatments : treatments) {
+            assertEquals(1, identityTreatments.size());
+            assertEquals("control", identityTreatments.get("exp").getName());
+        }
+    }
+
     @Test
     public void testGetIdentityTypes() {
         final Map<String, Class<? extends IdentityDto>> map = client.getIdentityTypes();
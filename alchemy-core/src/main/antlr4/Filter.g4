@@ -3,6 +3,10 @@ grammar Filter;
 AND: ('&' | 'and');
 OR: ('|' | 'or');
 NOT: ('!' | 'not');
+IN: 'in';
+BETWEEN: 'between';
+STARTS_WITH: 'startsWith';
+MATCHES: 'matches';
 NUMBER: ('-' | '+')? [0-9]+;
 STRING: '"' ~('"')* '"';
 BOOLEAN: ('true' | 'false');
@@ -12,7 +16,11 @@ WS: [ \r\n\t]+ -> skip;
 
 exp: term | exp OR term;
 term: factor | factor AND term;
-factor: '(' exp ')' | value | comparison | NOT factor;
+factor: '(' exp ')' | value | comparison | membership | match | range | NOT factor;
 comparison: value COMPARISON value;
+membership: identifier NOT? IN '(' constant (',' constant)* ')';
+match: identifier (STARTS_WITH | MATCHES) STRING;
+range: identifier BETWEEN NUMBER AND NUMBER;
 constant: BOOLEAN | NUMBER | STRING;
-value: constant | IDENTIFIER;
+value: constant | identifier;
+identifier: IDENTIFIER | IN | BETWEEN | STARTS_WITH | MATCHES;
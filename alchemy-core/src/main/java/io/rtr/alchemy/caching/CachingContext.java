@@ -1,6 +1,7 @@
 package io.rtr.alchemy.caching;
 
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.rtr.alchemy.db.ExperimentsCache;
 import io.rtr.alchemy.models.Experiment;
 import java.io.Closeable;
@@ -8,6 +9,8 @@ import java.io.IOException;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -21,6 +24,8 @@ public class CachingContext implements Closeable {
     private final ExecutorService executorService;
     private final boolean ownsExecutorService;
     private final ConcurrentMap<String, AtomicBoolean> experimentLocks;
+    private ScheduledExecutorService scheduler;
+    private boolean closed;
 
     public CachingContext(ExperimentsCache cache,
                           Experiment.BuilderFactory builderFactory,
@@ -117,6 +122,26 @@ public class CachingContext implements Closeable {
         cache.delete(experimentName);
     }
 
+    /**
+     * Runs a task once after a delay, on a background thread owned by the context, unless the context has been closed
+     */
+    public synchronized void schedule(Runnable task, long delay, TimeUnit unit) {
+        if (closed) {
+            return;
+        }
+
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("alchemy-cache-scheduler-%d")
+                    .build()
+            );
+        }
+
+        scheduler.schedule(task, delay, unit);
+    }
+
     /**
      * Checks whether any experiments are stale
      */
@@ -133,6 +158,13 @@ public class CachingContext implements Closeable {
 
     @Override
     public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+            }
+        }
+
         if (ownsExecutorService) {
             executorService.shutdownNow();
         }
@@ -0,0 +1,12 @@
+package io.rtr.alchemy.caching;
+
+/**
+ * A cache strategy which does its work on a schedule, rather than in response to reads and writes
+ */
+public interface ScheduledCacheStrategy extends CacheStrategy {
+    /**
+     * Fires once, when the experiments using the strategy are created, so that the strategy can schedule its work
+     * with the context
+     */
+    void onStart(CachingContext context);
+}
@@ -0,0 +1,64 @@
+package io.rtr.alchemy.caching;
+
+import com.google.common.base.Preconditions;
+import org.joda.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This caching strategy checks whether the data in the cache is stale on a background thread, once every period, and
+ * if so, refreshes it.  Unlike PeriodicStaleCheckingCacheStrategy, cache reads do nothing, so that neither checks nor
+ * refreshes happen on the request path, and refreshes happen whether or not there is traffic.  Each period is varied
+ * at random by up to the given jitter, so that many replicas started together do not check at the same moment
+ */
+public class ScheduledRefreshCacheStrategy extends BasicCacheStrategy implements ScheduledCacheStrategy {
+    private static final Logger LOG = LoggerFactory.getLogger(ScheduledRefreshCacheStrategy.class);
+    private static final double DEFAULT_JITTER = 0.1;
+    private final long periodMillis;
+    private final double jitter;
+
+    public ScheduledRefreshCacheStrategy(Duration period) {
+        this(period, DEFAULT_JITTER);
+    }
+
+    /**
+     * @param period how often to check whether the cache is stale
+     * @param jitter the fraction of the period by which each period may be shorter or longer, between 0 and 1
+     */
+    public ScheduledRefreshCacheStrategy(Duration period, double jitter) {
+        Preconditions.checkArgument(period.getMillis() > 0, "period must be positive");
+        Preconditions.checkArgument(jitter >= 0 && jitter < 1, "jitter must be at least 0 and less than 1");
+        this.periodMillis = period.getMillis();
+        this.jitter = jitter;
+    }
+
+    long nextDelayMillis() {
+        final long range = (long) (periodMillis * jitter);
+        return range > 0 ? periodMillis + ThreadLocalRandom.current().nextLong(-range, range + 1) : periodMillis;
+    }
+
+    @Override
+    public void onStart(CachingContext context) {
+        schedule(context);
+    }
+
+    private void schedule(final CachingContext context) {
+        context.schedule(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (context.checkIfAnyStale()) {
+                        context.invalidateAll(false);
+                    }
+                } catch (final RuntimeException e) {
+                    LOG.error("failed to refresh experiments, retrying", e);
+                } finally {
+                    schedule(context);
+                }
+            }
+        }, nextDelayMillis(), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,17 @@
+package io.rtr.alchemy.db;
+
+import io.rtr.alchemy.models.EvaluationPlan;
+
+/**
+ * An experiments cache which publishes a plan to evaluate its active experiments with.  Caches which do not have one
+ * built from their active experiments, which is reused for as long as they return the same map of them, so such caches
+ * should return a new map when their active experiments change rather than change the map they returned
+ */
+public interface EvaluationPlanProvider {
+    /**
+     * Return a snapshot of the active experiments to evaluate treatments with, which should be rebuilt whenever the
+     * active experiments change rather than on every call
+     * @return the current plan
+     */
+    EvaluationPlan getEvaluationPlan();
+}
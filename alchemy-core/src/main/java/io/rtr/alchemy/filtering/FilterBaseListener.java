@@ -17,13 +17,26 @@ public class FilterBaseListener implements FilterListener {
 	 *
 	 * <p>The default implementation does nothing.</p>
 	 */
-	@Override public void enterExp(@NotNull FilterParser.ExpContext ctx) { }
+	@Override public void enterIdentifier(@NotNull FilterParser.IdentifierContext ctx) { }
 	/**
 	 * {@inheritDoc}
 	 *
 	 * <p>The default implementation does nothing.</p>
 	 */
-	@Override public void exitExp(@NotNull FilterParser.ExpContext ctx) { }
+	@Override public void exitIdentifier(@NotNull FilterParser.IdentifierContext ctx) { }
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void enterComparison(@NotNull FilterParser.ComparisonContext ctx) { }
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void exitComparison(@NotNull FilterParser.ComparisonContext ctx) { }
 
 	/**
 	 * {@inheritDoc}
@@ -38,6 +51,32 @@ public class FilterBaseListener implements FilterListener {
 	 */
 	@Override public void exitConstant(@NotNull FilterParser.ConstantContext ctx) { }
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void enterMatch(@NotNull FilterParser.MatchContext ctx) { }
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void exitMatch(@NotNull FilterParser.MatchContext ctx) { }
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void enterRange(@NotNull FilterParser.RangeContext ctx) { }
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void exitRange(@NotNull FilterParser.RangeContext ctx) { }
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -56,13 +95,26 @@ public class FilterBaseListener implements FilterListener {
 	 *
 	 * <p>The default implementation does nothing.</p>
 	 */
-	@Override public void enterValue(@NotNull FilterParser.ValueContext ctx) { }
+	@Override public void enterMembership(@NotNull FilterParser.MembershipContext ctx) { }
 	/**
 	 * {@inheritDoc}
 	 *
 	 * <p>The default implementation does nothing.</p>
 	 */
-	@Override public void exitValue(@NotNull FilterParser.ValueContext ctx) { }
+	@Override public void exitMembership(@NotNull FilterParser.MembershipContext ctx) { }
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void enterExp(@NotNull FilterParser.ExpContext ctx) { }
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The default implementation does nothing.</p>
+	 */
+	@Override public void exitExp(@NotNull FilterParser.ExpContext ctx) { }
 
 	/**
 	 * {@inheritDoc}
@@ -82,13 +134,13 @@ public class FilterBaseListener implements FilterListener {
 	 *
 	 * <p>The default implementation does nothing.</p>
 	 */
-	@Override public void enterComparison(@NotNull FilterParser.ComparisonContext ctx) { }
+	@Override public void enterValue(@NotNull FilterParser.ValueContext ctx) { }
 	/**
 	 * {@inheritDoc}
 	 *
 	 * <p>The default implementation does nothing.</p>
 	 */
-	@Override public void exitComparison(@NotNull FilterParser.ComparisonContext ctx) { }
+	@Override public void exitValue(@NotNull FilterParser.ValueContext ctx) { }
 
 	/**
 	 * {@inheritDoc}
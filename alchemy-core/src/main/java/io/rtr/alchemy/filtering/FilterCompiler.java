@@ -0,0 +1,150 @@
+package io.rtr.alchemy.filtering;
+
+import com.google.common.collect.Lists;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiles a parsed filter expression into a tree of nodes that can be evaluated without re-walking the parse tree.
+ * All constants are parsed once, at compile time, and anything whose value is known at compile time is folded away
+ */
+class FilterCompiler {
+    private FilterCompiler() {
+    }
+
+    static FilterNode compile(FilterParser.ExpContext context) {
+        return FilterOptimizer.optimize(compileExp(context));
+    }
+
+    private static FilterNode compileExp(FilterParser.ExpContext context) {
+        // exp: term | exp OR term, which is left-recursive, so collect terms from right to left
+        final List<FilterNode> children = Lists.newArrayList();
+        FilterParser.ExpContext current = context;
+
+        while (current != null) {
+            children.add(0, compileTerm(current.term()));
+            current = current.exp();
+        }
+
+        return children.size() == 1 ? children.get(0) : new FilterNode.Or(children.toArray(new FilterNode[children.size()]));
+    }
+
+    private static FilterNode compileTerm(FilterParser.TermContext context) {
+        // term: factor | factor AND term, which is right-recursive, so collect factors from left to right
+        final List<FilterNode> children = Lists.newArrayList();
+        FilterParser.TermContext current = context;
+
+        while (current != null) {
+            children.add(compileFactor(current.factor()));
+            current = current.term();
+        }
+
+        return children.size() == 1 ? children.get(0) : new FilterNode.And(children.toArray(new FilterNode[children.size()]));
+    }
+
+    private static FilterNode compileFactor(FilterParser.FactorContext context) {
+        if (context.exp() != null) {
+            return compileExp(context.exp());
+        } else if (context.value() != null) {
+            return compileValue(context.value());
+        } else if (context.comparison() != null) {
+            return compileComparison(context.comparison());
+        } else if (context.membership() != null) {
+            return compileMembership(context.membership());
+        } else if (context.match() != null) {
+            return compileMatch(context.match());
+        } else if (context.range() != null) {
+            return compileRange(context.range());
+        } else if (context.NOT() != null) {
+            return new FilterNode.Not(compileFactor(context.factor()));
+        }
+
+        throw new IllegalArgumentException(String.format("unsupported expression %s", context.getText()));
+    }
+
+    private static FilterNode compileValue(FilterParser.ValueContext context) {
+        if (context.identifier() != null) {
+            return new FilterNode.Truthy(context.identifier().getText());
+        }
+
+        return FilterNode.Constant.of(FilterNode.isTruthy(parseConstant(context.constant())));
+    }
+
+    private static FilterNode compileComparison(FilterParser.ComparisonContext context) {
+        return new FilterNode.Comparison(
+            compileOperand(context.value(0)),
+            FilterNode.Operator.of(context.COMPARISON().getText()),
+            compileOperand(context.value(1))
+        );
+    }
+
+    private static FilterNode compileMembership(FilterParser.MembershipContext context) {
+        final List<Object> values = Lists.newArrayList();
+        for (final FilterParser.ConstantContext constant : context.constant()) {
+            values.add(parseConstant(constant));
+        }
+
+        final FilterNode in = new FilterNode.In(context.identifier().getText(), values);
+        return context.NOT() != null ? new FilterNode.Not(in) : in;
+    }
+
+    private static FilterNode compileMatch(FilterParser.MatchContext context) {
+        final String name = context.identifier().getText();
+        final String value = parseString(context.STRING());
+
+        if (context.STARTS_WITH() != null) {
+            return new FilterNode.StartsWith(name, value);
+        }
+
+        try {
+            return new FilterNode.Matches(name, Pattern.compile(value));
+        } catch (final PatternSyntaxException e) {
+            throw new IllegalArgumentException(String.format("invalid regular expression %s", value), e);
+        }
+    }
+
+    private static FilterNode compileRange(FilterParser.RangeContext context) {
+        // ranges include both of their bounds
+        final String name = context.identifier().getText();
+        return new FilterNode.And(new FilterNode[] {
+            new FilterNode.Comparison(
+                new FilterNode.AttributeOperand(name),
+                FilterNode.Operator.GREATER_THAN_OR_EQUAL,
+                new FilterNode.ConstantOperand(Long.parseLong(context.NUMBER(0).getText()))
+            ),
+            new FilterNode.Comparison(
+                new FilterNode.AttributeOperand(name),
+                FilterNode.Operator.LESS_THAN_OR_EQUAL,
+                new FilterNode.ConstantOperand(Long.parseLong(context.NUMBER(1).getText()))
+            )
+        });
+    }
+
+    private static FilterNode.Operand compileOperand(FilterParser.ValueContext context) {
+        if (context.identifier() != null) {
+            return new FilterNode.AttributeOperand(context.identifier().getText());
+        }
+
+        return new FilterNode.ConstantOperand(parseConstant(context.constant()));
+    }
+
+    private static Object parseConstant(FilterParser.ConstantContext context) {
+        if (context.STRING() != null) {
+            return parseString(context.STRING());
+        } else if (context.NUMBER() != null) {
+            return Long.parseLong(context.NUMBER().getText());
+        } else if (context.BOOLEAN() != null) {
+            return Boolean.parseBoolean(context.BOOLEAN().getText());
+        }
+
+        throw new IllegalArgumentException(String.format("unsupported constant %s", context.getText()));
+    }
+
+    private static String parseString(TerminalNode node) {
+        final String value = node.getText();
+        return value.substring(1, value.length() - 1);
+    }
+}
@@ -1,36 +1,49 @@
 package io.rtr.alchemy.filtering;
 
 import com.google.common.base.Objects;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.rtr.alchemy.identities.AttributesMap;
 import org.antlr.v4.runtime.ANTLRInputStream;
 import org.antlr.v4.runtime.CommonTokenStream;
-import org.antlr.v4.runtime.ParserRuleContext;
-import org.antlr.v4.runtime.misc.NotNull;
-import org.antlr.v4.runtime.tree.ErrorNode;
-import org.antlr.v4.runtime.tree.ParseTreeWalker;
-import org.antlr.v4.runtime.tree.TerminalNode;
 
-import java.util.Stack;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * Allows evaluation of a filter expression which tests whether given attributes are present
+ * Allows evaluation of a filter expression which tests whether given attributes are present.  The expression is
+ * compiled once when it is created, so it may be evaluated many times without re-parsing it.  Compiled expressions are
+ * immutable, so they are interned and shared by everything that creates the same expression
  */
 public class FilterExpression {
     private static final FilterExpression ALWAYS_TRUE = new FilterExpression();
     private static final FilterErrorListener ERROR_LISTENER = new FilterErrorListener();
-    private final ParseTreeWalker walker;
-    private final FilterParser.ExpContext expression;
+    private static final int MAX_CACHED_EXPRESSIONS = 10000;
+    private static final LoadingCache<String, FilterExpression> CACHE =
+        CacheBuilder
+            .newBuilder()
+            .maximumSize(MAX_CACHED_EXPRESSIONS)
+            .recordStats()
+            .build(new CacheLoader<String, FilterExpression>() {
+                @Override
+                public FilterExpression load(String expression) {
+                    return parse(expression);
+                }
+            });
+    private final FilterNode root;
     private final String expressionString;
 
     private FilterExpression(String expressionString, FilterParser parser) {
-        this.expression = parser.exp();
-        this.walker = new ParseTreeWalker();
+        this.root = FilterCompiler.compile(parser.exp());
         this.expressionString = expressionString;
     }
 
     private FilterExpression() {
-        this.walker = null;
-        this.expression = null;
+        this.root = FilterNode.Constant.TRUE;
         this.expressionString = "true";
     }
 
@@ -43,6 +56,22 @@ public class FilterExpression {
             return ALWAYS_TRUE;
         }
 
+        try {
+            return CACHE.getUnchecked(expression);
+        } catch (final UncheckedExecutionException e) {
+            Throwables.propagateIfInstanceOf(e.getCause(), IllegalArgumentException.class);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns hit and miss statistics of the cache of compiled expressions shared by calls to of()
+     */
+    public static CacheStats getCacheStats() {
+        return CACHE.stats();
+    }
+
+    private static FilterExpression parse(String expression) {
         final ANTLRInputStream inputStream = new ANTLRInputStream(expression);
         final FilterLexer lexer = new FilterLexer(inputStream);
         lexer.getErrorListeners().clear();
@@ -56,18 +85,62 @@ public class FilterExpression {
         return new FilterExpression(expression, parser);
     }
 
+    FilterNode getRoot() {
+        return root;
+    }
+
     /**
      * Evaluates the filter
      * @param attributes Attributes to evaluate against
      */
     public boolean evaluate(AttributesMap attributes) {
-        if (expression == null) {
-            return true;
-        }
+        return root.evaluate(attributes);
+    }
+
+    /**
+     * Returns the attributes whose values are constrained by equality comparisons that the whole expression depends
+     * on, each with the set of values that can make the expression true.  The expression can only be true for
+     * attributes which have one of the returned values for every returned attribute, so the result may be used to
+     * index expressions by attribute value
+     */
+    public Map<String, Set<Object>> getRequiredValues() {
+        return FilterNode.getRequiredValues(root);
+    }
+
+    /**
+     * Whether the expression is true for any attributes
+     */
+    public boolean isAlwaysTrue() {
+        return root == FilterNode.Constant.TRUE;
+    }
+
+    /**
+     * Whether the expression is false for any attributes, so it can never match
+     */
+    public boolean isAlwaysFalse() {
+        return root == FilterNode.Constant.FALSE;
+    }
 
-        final FilterExpressionEvaluator evaluator = new FilterExpressionEvaluator(attributes);
-        walker.walk(evaluator, expression);
-        return evaluator.getResult();
+    /**
+     * Whether the expression is true for any attributes which only contain the given attribute names
+     */
+    public boolean isAlwaysTrue(Set<String> supportedAttributes) {
+        return FilterOptimizer.resolve(root, supportedAttributes) == FilterNode.Constant.TRUE;
+    }
+
+    /**
+     * Whether the expression is false for any attributes which only contain the given attribute names, such as the
+     * supported attributes of every identity it will be evaluated for, in which case it can never match
+     */
+    public boolean isAlwaysFalse(Set<String> supportedAttributes) {
+        return FilterOptimizer.resolve(root, supportedAttributes) == FilterNode.Constant.FALSE;
+    }
+
+    /**
+     * Returns the names of the attributes the expression depends on
+     */
+    public Set<String> getAttributeNames() {
+        return FilterNode.getAttributeNames(root);
     }
 
     @Override
@@ -98,257 +171,4 @@ public class FilterExpression {
     public int hashCode() {
         return Objects.hashCode(expressionString);
     }
-
-    /**
-     * A parser listener that evaluates the boolean logic expression by traversing the tree
-     * Each time an operation is encountered (e.g. exp, factor or term), we push onto the stack
-     * OP to serve as a place holder to separate contiguous values that should be applied to an
-     * operation. Comparisons are evaluated when exiting a comparison, the boolean value of which
-     * is then pushed onto the stack as well
-     */
-    private static class FilterExpressionEvaluator implements FilterListener {
-        private static final Boolean OP = null;
-        private final Stack<Boolean> stack;
-        private final AttributesMap attributes;
-
-        public FilterExpressionEvaluator(AttributesMap attributes) {
-            this.stack = new Stack<>();
-            this.attributes = attributes;
-        }
-
-        public boolean getResult() {
-            return stack.peek();
-        }
-
-        @Override
-        public void enterExp(@NotNull FilterParser.ExpContext ctx) {
-            stack.push(OP);
-        }
-
-        @Override
-        public void exitExp(@NotNull FilterParser.ExpContext ctx) {
-            // do an OR of values on stack
-            boolean accum = stack.pop();
-
-            while (!stack.empty()) {
-                Boolean nextValue = stack.pop();
-                if (nextValue == OP) {
-                    break;
-                }
-                accum |= nextValue;
-            }
-
-            stack.push(accum);
-        }
-
-        @Override
-        public void enterTerm(@NotNull FilterParser.TermContext ctx) {
-            stack.push(OP);
-        }
-
-        @Override
-        public void exitTerm(@NotNull FilterParser.TermContext ctx) {
-            // do an AND of values on stack
-            boolean accum = stack.pop();
-
-            while (!stack.empty()) {
-                Boolean nextValue = stack.pop();
-                if (nextValue == OP) {
-                    break;
-                }
-                accum &= nextValue;
-            }
-
-            stack.push(accum);
-        }
-
-        @Override
-        public void enterFactor(@NotNull FilterParser.FactorContext ctx) {
-            stack.push(OP);
-        }
-
-        @Override
-        public void exitFactor(@NotNull FilterParser.FactorContext ctx) {
-            if (ctx.value() != null) {
-                // was a singular value, need to evaluate it
-                stack.pop();
-
-                final FilterParser.ValueContext context = ctx.value();
-                // singular value, either an identifier or constant
-                if (context.IDENTIFIER() != null) {
-                    // identifier
-                    final String name = context.getText();
-                    final Class<?> type = attributes.getType(name);
-
-                    if (type == String.class) {
-                        stack.push(!attributes.getString(name).isEmpty());
-                    } else if (type == Long.class) {
-                        stack.push(attributes.getNumber(name) != 0);
-                    } else if (type == Boolean.class) {
-                        stack.push(attributes.getBoolean(name));
-                    } else {
-                        stack.push(false);
-                    }
-                } else {
-                    // constant value
-                    final FilterParser.ConstantContext constant = context.constant();
-                    if (constant.STRING() != null) {
-                        // empty string is false, otherwise true
-                        stack.push(constant.STRING().getText().length() > 2);
-                    } else if (constant.NUMBER() != null) {
-                        // 0 = false, all others = true
-                        final long value = Long.parseLong(constant.NUMBER().getText());
-                        stack.push(value != 0);
-                    } else if (constant.BOOLEAN() != null) {
-                        // direct conversion
-                        stack.push(Boolean.parseBoolean(constant.BOOLEAN().getText()));
-                    } else {
-                        stack.push(false);
-                    }
-                }
-            } else {
-                // was something else, which has already been evaluated to a boolean
-                final boolean value = stack.pop();
-                stack.pop();
-                stack.push(ctx.NOT() != null ? !value : value);
-            }
-        }
-
-        @Override
-        public void enterValue(@NotNull FilterParser.ValueContext ctx) {
-        }
-
-        @Override
-        public void exitValue(@NotNull FilterParser.ValueContext ctx) {
-        }
-
-        @Override
-        public void visitTerminal(@NotNull TerminalNode terminalNode) {
-
-        }
-
-        @Override
-        public void visitErrorNode(@NotNull ErrorNode errorNode) {
-
-        }
-
-        @Override
-        public void enterEveryRule(@NotNull ParserRuleContext parserRuleContext) {
-
-        }
-
-        @Override
-        public void exitEveryRule(@NotNull ParserRuleContext parserRuleContext) {
-        }
-
-        @Override
-        public void enterConstant(@NotNull FilterParser.ConstantContext ctx) {
-        }
-
-        @Override
-        public void exitConstant(@NotNull FilterParser.ConstantContext ctx) {
-        }
-
-        @Override
-        public void enterComparison(@NotNull FilterParser.ComparisonContext ctx) {
-        }
-
-        private Class<?> getType(FilterParser.ValueContext context) {
-            if (context.IDENTIFIER() != null) {
-                // identifier
-                return attributes.getType(context.IDENTIFIER().getText());
-            } else {
-                // constant
-                final FilterParser.ConstantContext constant = context.constant();
-                if (constant.STRING() != null) {
-                    return String.class;
-                } else if (constant.NUMBER() != null) {
-                    return Long.class;
-                } else if (constant.BOOLEAN() != null) {
-                    return Boolean.class;
-                }
-
-                return null;
-            }
-        }
-
-        private Comparable getValue(FilterParser.ValueContext context) {
-            if (context.IDENTIFIER() != null) {
-                // identifier
-                final String identifier = context.IDENTIFIER().getText();
-                final Class<?> type = attributes.getType(identifier);
-                if (type == String.class) {
-                    return attributes.getString(identifier);
-                } else if (type == Long.class) {
-                    return attributes.getNumber(identifier);
-                } else if (type == Boolean.class) {
-                    return attributes.getBoolean(identifier);
-                }
-
-                return null;
-            } else {
-                // constant
-                final FilterParser.ConstantContext constant = context.constant();
-                if (constant.STRING() != null) {
-                    final String value = constant.STRING().getText();
-                    return value.length() == 2 ?
-                           "" :
-                           value.substring(1, value.length() - 1);
-                } else if (constant.NUMBER() != null) {
-                    return Long.parseLong(constant.NUMBER().getText());
-                } else if (constant.BOOLEAN() != null) {
-                    return Boolean.parseBoolean(constant.BOOLEAN().getText());
-                }
-
-                return null;
-            }
-        }
-
-        @Override
-        public void exitComparison(@NotNull FilterParser.ComparisonContext ctx) {
-            final FilterParser.ValueContext lhs = ctx.value(0);
-            final FilterParser.ValueContext rhs = ctx.value(1);
-
-            // for comparison, only support comparing like types for now
-            final Class<?> lhsType = getType(lhs);
-            final Class<?> rhsType = getType(rhs);
-            final String comparison = ctx.COMPARISON().getText();
-
-            if (lhsType == null || rhsType == null || rhsType != lhsType) {
-                stack.push(comparison.equals("!=") || comparison.equals("<>"));
-                return;
-            }
-
-            final Comparable lhValue = getValue(lhs);
-            final Comparable rhValue = getValue(rhs);
-
-            @SuppressWarnings("unchecked")
-            final int value = lhValue.compareTo(rhValue);
-
-            switch (comparison) {
-                case ">":
-                    stack.push(value > 0);
-                    break;
-                case "<":
-                    stack.push(value < 0);
-                    break;
-                case "<=":
-                    stack.push(value <= 0);
-                    break;
-                case ">=":
-                    stack.push(value >= 0);
-                    break;
-                case "=":
-                    stack.push(value == 0);
-                    break;
-                case "<>":
-                case "!=":
-                    stack.push(value != 0);
-                    break;
-                default:
-                    stack.push(false);
-                    break;
-            }
-        }
-    }
 }
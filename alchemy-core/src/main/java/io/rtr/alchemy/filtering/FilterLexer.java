@@ -15,20 +15,23 @@ public class FilterLexer extends Lexer {
 	protected static final PredictionContextCache _sharedContextCache =
 		new PredictionContextCache();
 	public static final int
-		T__1=1, T__0=2, AND=3, OR=4, NOT=5, NUMBER=6, STRING=7, BOOLEAN=8, IDENTIFIER=9, 
-		COMPARISON=10, WS=11;
+		T__2=1, T__1=2, T__0=3, AND=4, OR=5, NOT=6, IN=7, BETWEEN=8, STARTS_WITH=9, 
+		MATCHES=10, NUMBER=11, STRING=12, BOOLEAN=13, IDENTIFIER=14, COMPARISON=15, 
+		WS=16;
 	public static String[] modeNames = {
 		"DEFAULT_MODE"
 	};
 
 	public static final String[] tokenNames = {
 		"<INVALID>",
-		"')'", "'('", "AND", "OR", "NOT", "NUMBER", "STRING", "BOOLEAN", "IDENTIFIER", 
-		"COMPARISON", "WS"
+		"'('", "')'", "','", "AND", "OR", "NOT", "'in'", "'between'", "'startsWith'", 
+		"'matches'", "NUMBER", "STRING", "BOOLEAN", "IDENTIFIER", "COMPARISON", 
+		"WS"
 	};
 	public static final String[] ruleNames = {
-		"T__1", "T__0", "AND", "OR", "NOT", "NUMBER", "STRING", "BOOLEAN", "IDENTIFIER", 
-		"COMPARISON", "WS"
+		"T__2", "T__1", "T__0", "AND", "OR", "NOT", "IN", "BETWEEN", "STARTS_WITH", 
+		"MATCHES", "NUMBER", "STRING", "BOOLEAN", "IDENTIFIER", "COMPARISON", 
+		"WS"
 	};
 
 
@@ -56,33 +59,45 @@ public class FilterLexer extends Lexer {
 	public ATN getATN() { return _ATN; }
 
 	public static final String _serializedATN =
-		"\3\u0430\ud6d1\u8206\uad2d\u4417\uaef1\u8d80\uaadd\2\rc\b\1\4\2\t\2\4"+
-		"\3\t\3\4\4\t\4\4\5\t\5\4\6\t\6\4\7\t\7\4\b\t\b\4\t\t\t\4\n\t\n\4\13\t"+
-		"\13\4\f\t\f\3\2\3\2\3\3\3\3\3\4\3\4\3\4\3\4\5\4\"\n\4\3\5\3\5\3\5\5\5"+
-		"\'\n\5\3\6\3\6\3\6\3\6\5\6-\n\6\3\7\5\7\60\n\7\3\7\6\7\63\n\7\r\7\16\7"+
-		"\64\3\b\3\b\7\b9\n\b\f\b\16\b<\13\b\3\b\3\b\3\t\3\t\3\t\3\t\3\t\3\t\3"+
-		"\t\3\t\3\t\5\tI\n\t\3\n\3\n\7\nM\n\n\f\n\16\nP\13\n\3\13\3\13\3\13\3\13"+
-		"\3\13\3\13\3\13\3\13\3\13\5\13[\n\13\3\f\6\f^\n\f\r\f\16\f_\3\f\3\f\2"+
-		"\2\r\3\3\5\4\7\5\t\6\13\7\r\b\17\t\21\n\23\13\25\f\27\r\3\2\b\4\2--//"+
-		"\3\2\62;\3\2$$\6\2//C\\aac|\7\2//\62;C\\aac|\5\2\13\f\17\17\"\"o\2\3\3"+
-		"\2\2\2\2\5\3\2\2\2\2\7\3\2\2\2\2\t\3\2\2\2\2\13\3\2\2\2\2\r\3\2\2\2\2"+
-		"\17\3\2\2\2\2\21\3\2\2\2\2\23\3\2\2\2\2\25\3\2\2\2\2\27\3\2\2\2\3\31\3"+
-		"\2\2\2\5\33\3\2\2\2\7!\3\2\2\2\t&\3\2\2\2\13,\3\2\2\2\r/\3\2\2\2\17\66"+
-		"\3\2\2\2\21H\3\2\2\2\23J\3\2\2\2\25Z\3\2\2\2\27]\3\2\2\2\31\32\7+\2\2"+
-		"\32\4\3\2\2\2\33\34\7*\2\2\34\6\3\2\2\2\35\"\7(\2\2\36\37\7c\2\2\37 \7"+
-		"p\2\2 \"\7f\2\2!\35\3\2\2\2!\36\3\2\2\2\"\b\3\2\2\2#\'\7~\2\2$%\7q\2\2"+
-		"%\'\7t\2\2&#\3\2\2\2&$\3\2\2\2\'\n\3\2\2\2(-\7#\2\2)*\7p\2\2*+\7q\2\2"+
-		"+-\7v\2\2,(\3\2\2\2,)\3\2\2\2-\f\3\2\2\2.\60\t\2\2\2/.\3\2\2\2/\60\3\2"+
-		"\2\2\60\62\3\2\2\2\61\63\t\3\2\2\62\61\3\2\2\2\63\64\3\2\2\2\64\62\3\2"+
-		"\2\2\64\65\3\2\2\2\65\16\3\2\2\2\66:\7$\2\2\679\n\4\2\28\67\3\2\2\29<"+
-		"\3\2\2\2:8\3\2\2\2:;\3\2\2\2;=\3\2\2\2<:\3\2\2\2=>\7$\2\2>\20\3\2\2\2"+
-		"?@\7v\2\2@A\7t\2\2AB\7w\2\2BI\7g\2\2CD\7h\2\2DE\7c\2\2EF\7n\2\2FG\7u\2"+
-		"\2GI\7g\2\2H?\3\2\2\2HC\3\2\2\2I\22\3\2\2\2JN\t\5\2\2KM\t\6\2\2LK\3\2"+
-		"\2\2MP\3\2\2\2NL\3\2\2\2NO\3\2\2\2O\24\3\2\2\2PN\3\2\2\2Q[\4>@\2RS\7>"+
-		"\2\2S[\7@\2\2TU\7#\2\2U[\7?\2\2VW\7>\2\2W[\7?\2\2XY\7@\2\2Y[\7?\2\2ZQ"+
-		"\3\2\2\2ZR\3\2\2\2ZT\3\2\2\2ZV\3\2\2\2ZX\3\2\2\2[\26\3\2\2\2\\^\t\7\2"+
-		"\2]\\\3\2\2\2^_\3\2\2\2_]\3\2\2\2_`\3\2\2\2`a\3\2\2\2ab\b\f\2\2b\30\3"+
-		"\2\2\2\r\2!&,/\64:HNZ_\3\b\2\2";
+		"\3\u0430\ud6d1\u8206\uad2d\u4417\uaef1\u8d80\uaadd\2\22\u008d\b\1\4\2"+
+		"\t\2\4\3\t\3\4\4\t\4\4\5\t\5\4\6\t\6\4\7\t\7\4\b\t\b\4\t\t\t\4\n\t\n\4"+
+		"\13\t\13\4\f\t\f\4\r\t\r\4\16\t\16\4\17\t\17\4\20\t\20\4\21\t\21\3\2\3"+
+		"\2\3\3\3\3\3\4\3\4\3\5\3\5\3\5\3\5\5\5.\n\5\3\6\3\6\3\6\5\6\63\n\6\3\7"+
+		"\3\7\3\7\3\7\5\79\n\7\3\b\3\b\3\b\3\t\3\t\3\t\3\t\3\t\3\t\3\t\3\t\3\n"+
+		"\3\n\3\n\3\n\3\n\3\n\3\n\3\n\3\n\3\n\3\n\3\13\3\13\3\13\3\13\3\13\3\13"+
+		"\3\13\3\13\3\f\5\fZ\n\f\3\f\6\f]\n\f\r\f\16\f^\3\r\3\r\7\rc\n\r\f\r\16"+
+		"\rf\13\r\3\r\3\r\3\16\3\16\3\16\3\16\3\16\3\16\3\16\3\16\3\16\5\16s\n"+
+		"\16\3\17\3\17\7\17w\n\17\f\17\16\17z\13\17\3\20\3\20\3\20\3\20\3\20\3"+
+		"\20\3\20\3\20\3\20\5\20\u0085\n\20\3\21\6\21\u0088\n\21\r\21\16\21\u0089"+
+		"\3\21\3\21\2\2\22\3\3\5\4\7\5\t\6\13\7\r\b\17\t\21\n\23\13\25\f\27\r\31"+
+		"\16\33\17\35\20\37\21!\22\3\2\b\4\2--//\3\2\62;\3\2$$\6\2//C\\aac|\7\2"+
+		"//\62;C\\aac|\5\2\13\f\17\17\"\"\u0099\2\3\3\2\2\2\2\5\3\2\2\2\2\7\3\2"+
+		"\2\2\2\t\3\2\2\2\2\13\3\2\2\2\2\r\3\2\2\2\2\17\3\2\2\2\2\21\3\2\2\2\2"+
+		"\23\3\2\2\2\2\25\3\2\2\2\2\27\3\2\2\2\2\31\3\2\2\2\2\33\3\2\2\2\2\35\3"+
+		"\2\2\2\2\37\3\2\2\2\2!\3\2\2\2\3#\3\2\2\2\5%\3\2\2\2\7\'\3\2\2\2\t-\3"+
+		"\2\2\2\13\62\3\2\2\2\r8\3\2\2\2\17:\3\2\2\2\21=\3\2\2\2\23E\3\2\2\2\25"+
+		"P\3\2\2\2\27Y\3\2\2\2\31`\3\2\2\2\33r\3\2\2\2\35t\3\2\2\2\37\u0084\3\2"+
+		"\2\2!\u0087\3\2\2\2#$\7*\2\2$\4\3\2\2\2%&\7+\2\2&\6\3\2\2\2\'(\7.\2\2"+
+		"(\b\3\2\2\2).\7(\2\2*+\7c\2\2+,\7p\2\2,.\7f\2\2-)\3\2\2\2-*\3\2\2\2.\n"+
+		"\3\2\2\2/\63\7~\2\2\60\61\7q\2\2\61\63\7t\2\2\62/\3\2\2\2\62\60\3\2\2"+
+		"\2\63\f\3\2\2\2\649\7#\2\2\65\66\7p\2\2\66\67\7q\2\2\679\7v\2\28\64\3"+
+		"\2\2\28\65\3\2\2\29\16\3\2\2\2:;\7k\2\2;<\7p\2\2<\20\3\2\2\2=>\7d\2\2"+
+		">?\7g\2\2?@\7v\2\2@A\7y\2\2AB\7g\2\2BC\7g\2\2CD\7p\2\2D\22\3\2\2\2EF\7"+
+		"u\2\2FG\7v\2\2GH\7c\2\2HI\7t\2\2IJ\7v\2\2JK\7u\2\2KL\7Y\2\2LM\7k\2\2M"+
+		"N\7v\2\2NO\7j\2\2O\24\3\2\2\2PQ\7o\2\2QR\7c\2\2RS\7v\2\2ST\7e\2\2TU\7"+
+		"j\2\2UV\7g\2\2VW\7u\2\2W\26\3\2\2\2XZ\t\2\2\2YX\3\2\2\2YZ\3\2\2\2Z\\\3"+
+		"\2\2\2[]\t\3\2\2\\[\3\2\2\2]^\3\2\2\2^\\\3\2\2\2^_\3\2\2\2_\30\3\2\2\2"+
+		"`d\7$\2\2ac\n\4\2\2ba\3\2\2\2cf\3\2\2\2db\3\2\2\2de\3\2\2\2eg\3\2\2\2"+
+		"fd\3\2\2\2gh\7$\2\2h\32\3\2\2\2ij\7v\2\2jk\7t\2\2kl\7w\2\2ls\7g\2\2mn"+
+		"\7h\2\2no\7c\2\2op\7n\2\2pq\7u\2\2qs\7g\2\2ri\3\2\2\2rm\3\2\2\2s\34\3"+
+		"\2\2\2tx\t\5\2\2uw\t\6\2\2vu\3\2\2\2wz\3\2\2\2xv\3\2\2\2xy\3\2\2\2y\36"+
+		"\3\2\2\2zx\3\2\2\2{\u0085\4>@\2|}\7>\2\2}\u0085\7@\2\2~\177\7#\2\2\177"+
+		"\u0085\7?\2\2\u0080\u0081\7>\2\2\u0081\u0085\7?\2\2\u0082\u0083\7@\2\2"+
+		"\u0083\u0085\7?\2\2\u0084{\3\2\2\2\u0084|\3\2\2\2\u0084~\3\2\2\2\u0084"+
+		"\u0080\3\2\2\2\u0084\u0082\3\2\2\2\u0085 \3\2\2\2\u0086\u0088\t\7\2\2"+
+		"\u0087\u0086\3\2\2\2\u0088\u0089\3\2\2\2\u0089\u0087\3\2\2\2\u0089\u008a"+
+		"\3\2\2\2\u008a\u008b\3\2\2\2\u008b\u008c\b\21\2\2\u008c\"\3\2\2\2\r\2"+
+		"-\628Y^drx\u0084\u0089\3\b\2\2";
 	public static final ATN _ATN =
 		new ATNDeserializer().deserialize(_serializedATN.toCharArray());
 	static {
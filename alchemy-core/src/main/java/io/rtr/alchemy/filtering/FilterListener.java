@@ -9,15 +9,26 @@ import org.antlr.v4.runtime.tree.ParseTreeListener;
  */
 public interface FilterListener extends ParseTreeListener {
 	/**
-	 * Enter a parse tree produced by {@link FilterParser#exp}.
+	 * Enter a parse tree produced by {@link FilterParser#identifier}.
 	 * @param ctx the parse tree
 	 */
-	void enterExp(@NotNull FilterParser.ExpContext ctx);
+	void enterIdentifier(@NotNull FilterParser.IdentifierContext ctx);
 	/**
-	 * Exit a parse tree produced by {@link FilterParser#exp}.
+	 * Exit a parse tree produced by {@link FilterParser#identifier}.
 	 * @param ctx the parse tree
 	 */
-	void exitExp(@NotNull FilterParser.ExpContext ctx);
+	void exitIdentifier(@NotNull FilterParser.IdentifierContext ctx);
+
+	/**
+	 * Enter a parse tree produced by {@link FilterParser#comparison}.
+	 * @param ctx the parse tree
+	 */
+	void enterComparison(@NotNull FilterParser.ComparisonContext ctx);
+	/**
+	 * Exit a parse tree produced by {@link FilterParser#comparison}.
+	 * @param ctx the parse tree
+	 */
+	void exitComparison(@NotNull FilterParser.ComparisonContext ctx);
 
 	/**
 	 * Enter a parse tree produced by {@link FilterParser#constant}.
@@ -30,6 +41,28 @@ public interface FilterListener extends ParseTreeListener {
 	 */
 	void exitConstant(@NotNull FilterParser.ConstantContext ctx);
 
+	/**
+	 * Enter a parse tree produced by {@link FilterParser#match}.
+	 * @param ctx the parse tree
+	 */
+	void enterMatch(@NotNull FilterParser.MatchContext ctx);
+	/**
+	 * Exit a parse tree produced by {@link FilterParser#match}.
+	 * @param ctx the parse tree
+	 */
+	void exitMatch(@NotNull FilterParser.MatchContext ctx);
+
+	/**
+	 * Enter a parse tree produced by {@link FilterParser#range}.
+	 * @param ctx the parse tree
+	 */
+	void enterRange(@NotNull FilterParser.RangeContext ctx);
+	/**
+	 * Exit a parse tree produced by {@link FilterParser#range}.
+	 * @param ctx the parse tree
+	 */
+	void exitRange(@NotNull FilterParser.RangeContext ctx);
+
 	/**
 	 * Enter a parse tree produced by {@link FilterParser#term}.
 	 * @param ctx the parse tree
@@ -42,15 +75,26 @@ public interface FilterListener extends ParseTreeListener {
 	void exitTerm(@NotNull FilterParser.TermContext ctx);
 
 	/**
-	 * Enter a parse tree produced by {@link FilterParser#value}.
+	 * Enter a parse tree produced by {@link FilterParser#membership}.
 	 * @param ctx the parse tree
 	 */
-	void enterValue(@NotNull FilterParser.ValueContext ctx);
+	void enterMembership(@NotNull FilterParser.MembershipContext ctx);
 	/**
-	 * Exit a parse tree produced by {@link FilterParser#value}.
+	 * Exit a parse tree produced by {@link FilterParser#membership}.
 	 * @param ctx the parse tree
 	 */
-	void exitValue(@NotNull FilterParser.ValueContext ctx);
+	void exitMembership(@NotNull FilterParser.MembershipContext ctx);
+
+	/**
+	 * Enter a parse tree produced by {@link FilterParser#exp}.
+	 * @param ctx the parse tree
+	 */
+	void enterExp(@NotNull FilterParser.ExpContext ctx);
+	/**
+	 * Exit a parse tree produced by {@link FilterParser#exp}.
+	 * @param ctx the parse tree
+	 */
+	void exitExp(@NotNull FilterParser.ExpContext ctx);
 
 	/**
 	 * Enter a parse tree produced by {@link FilterParser#factor}.
@@ -64,13 +108,13 @@ public interface FilterListener extends ParseTreeListener {
 	void exitFactor(@NotNull FilterParser.FactorContext ctx);
 
 	/**
-	 * Enter a parse tree produced by {@link FilterParser#comparison}.
+	 * Enter a parse tree produced by {@link FilterParser#value}.
 	 * @param ctx the parse tree
 	 */
-	void enterComparison(@NotNull FilterParser.ComparisonContext ctx);
+	void enterValue(@NotNull FilterParser.ValueContext ctx);
 	/**
-	 * Exit a parse tree produced by {@link FilterParser#comparison}.
+	 * Exit a parse tree produced by {@link FilterParser#value}.
 	 * @param ctx the parse tree
 	 */
-	void exitComparison(@NotNull FilterParser.ComparisonContext ctx);
+	void exitValue(@NotNull FilterParser.ValueContext ctx);
 }
\ No newline at end of file
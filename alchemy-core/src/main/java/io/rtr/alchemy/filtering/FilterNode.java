@@ -0,0 +1,922 @@
+package io.rtr.alchemy.filtering;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+import io.rtr.alchemy.identities.AttributesMap;
+import io.rtr.alchemy.identities.AttributesSchema;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.regex.Pattern;
+
+/**
+ * A node of a compiled filter expression.  Nodes are immutable, apart from the order in which and/or nodes evaluate
+ * their children, and evaluating them does not allocate, so a single compiled tree may be shared and evaluated
+ * concurrently
+ */
+abstract class FilterNode {
+    /**
+     * Evaluates this node against the given attributes
+     */
+    abstract boolean evaluate(AttributesMap attributes);
+
+    /**
+     * Evaluates this node against the given attributes, reusing the results of leaves shared by a filter set that
+     * were already evaluated for the same attributes
+     */
+    boolean evaluate(AttributesMap attributes, FilterSet.Evaluation evaluation) {
+        return evaluate(attributes);
+    }
+
+    /**
+     * Returns a key identifying the value of this node for any attributes, for leaves which may be shared between
+     * expressions, or null for nodes which are not shared
+     */
+    String getLeafKey() {
+        return null;
+    }
+
+    /**
+     * Returns the boolean value of an attribute value when used by itself in an expression
+     */
+    static boolean isTruthy(Object value) {
+        if (value instanceof String) {
+            return !((String) value).isEmpty();
+        } else if (value instanceof Long) {
+            return (Long) value != 0;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns, for attributes whose value decides whether a node can be true, the values that can make it true.  A
+     * node can only be true if each of the returned attributes has one of its values.  Only equality comparisons with
+     * constants, in lists, and the and/or nodes combining them, constrain attributes
+     */
+    static Map<String, Set<Object>> getRequiredValues(FilterNode node) {
+        if (node instanceof In) {
+            return ImmutableMap.of(((In) node).getName(), ((In) node).getValues());
+        } else if (node instanceof Comparison) {
+            final Comparison comparison = (Comparison) node;
+            if (comparison.operator == Operator.EQUAL) {
+                if (comparison.lhs instanceof AttributeOperand && comparison.rhs instanceof ConstantOperand) {
+                    return ImmutableMap.<String, Set<Object>>of(
+                        ((AttributeOperand) comparison.lhs).getName(),
+                        ImmutableSet.of(((ConstantOperand) comparison.rhs).getValue())
+                    );
+                } else if (comparison.rhs instanceof AttributeOperand && comparison.lhs instanceof ConstantOperand) {
+                    return ImmutableMap.<String, Set<Object>>of(
+                        ((AttributeOperand) comparison.rhs).getName(),
+                        ImmutableSet.of(((ConstantOperand) comparison.lhs).getValue())
+                    );
+                }
+            }
+        } else if (node instanceof And) {
+            // every child must be true, so every child's constraints hold
+            final Map<String, Set<Object>> result = Maps.newLinkedHashMap();
+            for (final FilterNode child : ((And) node).getChildren()) {
+                for (final Map.Entry<String, Set<Object>> entry : getRequiredValues(child).entrySet()) {
+                    final Set<Object> values = result.get(entry.getKey());
+                    result.put(
+                        entry.getKey(),
+                        values == null ? entry.getValue() : Sets.intersection(values, entry.getValue()).immutableCopy()
+                    );
+                }
+            }
+            return ImmutableMap.copyOf(result);
+        } else if (node instanceof Or) {
+            // any child may be true, so only attributes constrained by every child are, to any of their values
+            Map<String, Set<Object>> result = null;
+            for (final FilterNode child : ((Or) node).getChildren()) {
+                final Map<String, Set<Object>> childValues = getRequiredValues(child);
+                if (result == null) {
+                    result = Maps.newLinkedHashMap(childValues);
+                    continue;
+                }
+
+                result.keySet().retainAll(childValues.keySet());
+                for (final Map.Entry<String, Set<Object>> entry : result.entrySet()) {
+                    entry.setValue(Sets.union(entry.getValue(), childValues.get(entry.getKey())).immutableCopy());
+                }
+            }
+            return result != null ? ImmutableMap.copyOf(result) : ImmutableMap.<String, Set<Object>>of();
+        }
+
+        return ImmutableMap.of();
+    }
+
+    /**
+     * Returns the names of the attributes a node depends on
+     */
+    static Set<String> getAttributeNames(FilterNode node) {
+        final Set<String> result = Sets.newLinkedHashSet();
+        addAttributeNames(node, result);
+        return ImmutableSet.copyOf(result);
+    }
+
+    private static void addAttributeNames(FilterNode node, Set<String> names) {
+        if (node instanceof Truthy) {
+            names.add(((Truthy) node).getName());
+        } else if (node instanceof AttributePredicate) {
+            names.add(((AttributePredicate) node).getName());
+        } else if (node instanceof Comparison) {
+            for (final Operand operand : new Operand[] {((Comparison) node).lhs, ((Comparison) node).rhs}) {
+                if (operand instanceof AttributeOperand) {
+                    names.add(((AttributeOperand) operand).getName());
+                }
+            }
+        } else if (node instanceof Not) {
+            addAttributeNames(((Not) node).getChild(), names);
+        } else if (node instanceof Junction) {
+            for (final FilterNode child : ((Junction) node).getChildren()) {
+                addAttributeNames(child, names);
+            }
+        }
+    }
+
+    /**
+     * A node whose value never changes
+     */
+    static class Constant extends FilterNode {
+        static final Constant TRUE = new Constant(true);
+        static final Constant FALSE = new Constant(false);
+        private final boolean value;
+
+        private Constant(boolean value) {
+            this.value = value;
+        }
+
+        static Constant of(boolean value) {
+            return value ? TRUE : FALSE;
+        }
+
+        boolean getValue() {
+            return value;
+        }
+
+        @Override
+        boolean evaluate(AttributesMap attributes) {
+            return value;
+        }
+    }
+
+    /**
+     * A node which evaluates to the boolean value of an attribute
+     */
+    static class Truthy extends FilterNode {
+        private final String name;
+        private final int id;
+
+        Truthy(String name) {
+            this.name = name;
+            this.id = AttributesSchema.idOf(name);
+        }
+
+        String getName() {
+            return name;
+        }
+
+        int getId() {
+            return id;
+        }
+
+        @Override
+        boolean evaluate(AttributesMap attributes) {
+            // the value is read without boxing it
+            final Class<?> type = attributes.getTypeById(id);
+
+            if (type == String.class) {
+                return !attributes.getStringById(id).isEmpty();
+            } else if (type == Long.class) {
+                return attributes.getNumberById(id) != 0;
+            } else if (type == Boolean.class) {
+                return attributes.getBooleanById(id);
+            }
+
+            return false;
+        }
+
+        @Override
+        String getLeafKey() {
+            return "truthy " + name;
+        }
+    }
+
+    /**
+     * Returns a relative estimate of the cost of evaluating this node
+     */
+    int getCost() {
+        return 1;
+    }
+
+    /**
+     * A node which evaluates its children in turn until one of them has the value which decides the node's value.
+     * The children may be evaluated in any order, so the node observes how often each child decides its value over a
+     * sample of its evaluations, and then reorders its children so that the children most likely to decide its value
+     * for their cost are evaluated first.  Samples are taken again periodically, so that the order follows changes in
+     * the attributes being evaluated.  Counts are kept atomically, but a sample may still include a few evaluations
+     * that raced with the end of the previous one.  Copies of the node made for filter sets share its counts and
+     * order, so that the order learned by one is kept by the others
+     */
+    abstract static class Junction extends FilterNode {
+        static final int SAMPLE_SIZE = 1000;
+        // the number of evaluations from the start of one sample to the start of the next, a power of two so that the
+        // position in the period is kept when the count of evaluations overflows
+        static final int SAMPLE_PERIOD = 1 << 17;
+        // the smallest probability of a child deciding the value, so that children which never did are still ranked
+        private static final double MIN_PROBABILITY = 0.001;
+        private final boolean decidingValue;
+        private final FilterNode[] sampledChildren;
+        private final int cost;
+        private final Statistics statistics;
+        // the children in the last order this copy read from the statistics
+        private volatile Ordering ordering;
+
+        /**
+         * The counts of a junction and its copies, indexed by the position of each child in the junction as built
+         */
+        private static final class Statistics {
+            private final AtomicIntegerArray evaluations;
+            private final AtomicIntegerArray decisions;
+            // the number of times the junction was evaluated, whose position in the period decides when to sample
+            private final AtomicInteger ticks = new AtomicInteger();
+            // the position of each child in the order it is evaluated, or null until the first sample is taken
+            private volatile int[] order;
+
+            Statistics(int size) {
+                evaluations = new AtomicIntegerArray(size);
+                decisions = new AtomicIntegerArray(size);
+            }
+        }
+
+        /**
+         * The children of a junction in the order of the statistics it was made from
+         */
+        private static final class Ordering {
+            private final int[] order;
+            private final FilterNode[] children;
+
+            Ordering(int[] order, FilterNode[] children) {
+                this.order = order;
+                this.children = children;
+            }
+        }
+
+        Junction(FilterNode[] children, boolean decidingValue) {
+            this(children, decidingValue, new Statistics(children.length));
+        }
+
+        Junction(FilterNode[] children, Junction source) {
+            this(children, source.decidingValue, source.statistics);
+            Preconditions.checkArgument(
+                children.length == source.sampledChildren.length,
+                "a copy of a junction must have as many children"
+            );
+        }
+
+        private Junction(FilterNode[] children, boolean decidingValue, Statistics statistics) {
+            this.decidingValue = decidingValue;
+            this.sampledChildren = children;
+            this.statistics = statistics;
+
+            int cost = 0;
+            for (final FilterNode child : children) {
+                cost += child.getCost();
+            }
+            this.cost = cost;
+        }
+
+        /**
+         * Returns a junction of the same kind with the given children in place of the children it was built with,
+         * which keeps the counts and order of this one
+         */
+        abstract Junction copyWith(FilterNode[] children);
+
+        /**
+         * Returns the children in the order they are evaluated when not sampling
+         */
+        FilterNode[] getChildren() {
+            final FilterNode[] children = getOrderedChildren();
+            return children != null ? children : sampledChildren;
+        }
+
+        /**
+         * Returns the children in the order the junction was built with
+         */
+        FilterNode[] getBuiltChildren() {
+            return sampledChildren;
+        }
+
+        /**
+         * Whether the next evaluation of the junction is part of a sample
+         */
+        boolean isSampling() {
+            return getSample(statistics.ticks.get()) < SAMPLE_SIZE;
+        }
+
+        // the position in the sampling period of the given evaluation, counting from 0
+        private static int getSample(int tick) {
+            return tick & (SAMPLE_PERIOD - 1);
+        }
+
+        // the children in the learned order, or null until the first sample is taken
+        private FilterNode[] getOrderedChildren() {
+            final int[] order = statistics.order;
+            if (order == null) {
+                return null;
+            }
+
+            Ordering ordering = this.ordering;
+            if (ordering == null || ordering.order != order) {
+                final FilterNode[] children = new FilterNode[order.length];
+                for (int i = 0; i < order.length; i++) {
+                    children[i] = sampledChildren[order[i]];
+                }
+                ordering = new Ordering(order, children);
+                this.ordering = ordering;
+            }
+            return ordering.children;
+        }
+
+        @Override
+        int getCost() {
+            return cost;
+        }
+
+        @Override
+        boolean evaluate(AttributesMap attributes) {
+            return evaluate(attributes, null);
+        }
+
+        @Override
+        boolean evaluate(AttributesMap attributes, FilterSet.Evaluation evaluation) {
+            final int sample = getSample(statistics.ticks.getAndIncrement());
+            if (sample < SAMPLE_SIZE) {
+                return evaluateSampled(attributes, evaluation, sample == SAMPLE_SIZE - 1);
+            }
+
+            for (final FilterNode child : getChildren()) {
+                if (evaluate(child, attributes, evaluation) == decidingValue) {
+                    return decidingValue;
+                }
+            }
+
+            return !decidingValue;
+        }
+
+        private static boolean evaluate(FilterNode child, AttributesMap attributes, FilterSet.Evaluation evaluation) {
+            return evaluation != null ? child.evaluate(attributes, evaluation) : child.evaluate(attributes);
+        }
+
+        private boolean evaluateSampled(AttributesMap attributes, FilterSet.Evaluation evaluation, boolean last) {
+            boolean result = !decidingValue;
+
+            for (int i = 0; i < sampledChildren.length; i++) {
+                statistics.evaluations.incrementAndGet(i);
+                if (evaluate(sampledChildren[i], attributes, evaluation) == decidingValue) {
+                    statistics.decisions.incrementAndGet(i);
+                    result = decidingValue;
+                    break;
+                }
+            }
+
+            if (last) {
+                reorder();
+            }
+
+            return result;
+        }
+
+        // orders children by their cost for each time they are expected to decide the value, and clears the counts
+        // for the next sample
+        private void reorder() {
+            final Integer[] order = new Integer[sampledChildren.length];
+            final double[] ranks = new double[sampledChildren.length];
+
+            for (int i = 0; i < order.length; i++) {
+                final int evaluations = statistics.evaluations.getAndSet(i, 0);
+                final int decisions = statistics.decisions.getAndSet(i, 0);
+                final double probability = evaluations > 0 ? (double) decisions / evaluations : MIN_PROBABILITY;
+                order[i] = i;
+                ranks[i] = sampledChildren[i].getCost() / Math.max(probability, MIN_PROBABILITY);
+            }
+
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer lhs, Integer rhs) {
+                    return Double.compare(ranks[lhs], ranks[rhs]);
+                }
+            });
+
+            statistics.order = Ints.toArray(Arrays.asList(order));
+        }
+    }
+
+    /**
+     * A node which is true only if all of its children are true
+     */
+    static class And extends Junction {
+        And(FilterNode[] children) {
+            super(children, false);
+        }
+
+        private And(FilterNode[] children, And source) {
+            super(children, source);
+        }
+
+        @Override
+        Junction copyWith(FilterNode[] children) {
+            return new And(children, this);
+        }
+    }
+
+    /**
+     * A node which is true if any of its children are true
+     */
+    static class Or extends Junction {
+        Or(FilterNode[] children) {
+            super(children, true);
+        }
+
+        private Or(FilterNode[] children, Or source) {
+            super(children, source);
+        }
+
+        @Override
+        Junction copyWith(FilterNode[] children) {
+            return new Or(children, this);
+        }
+    }
+
+    /**
+     * A node which negates its child
+     */
+    static class Not extends FilterNode {
+        private final FilterNode child;
+
+        Not(FilterNode child) {
+            this.child = child;
+        }
+
+        FilterNode getChild() {
+            return child;
+        }
+
+        @Override
+        boolean evaluate(AttributesMap attributes) {
+            return !child.evaluate(attributes);
+        }
+
+        @Override
+        boolean evaluate(AttributesMap attributes, FilterSet.Evaluation evaluation) {
+            return !child.evaluate(attributes, evaluation);
+        }
+
+        @Override
+        int getCost() {
+            return child.getCost();
+        }
+    }
+
+    /**
+     * A node which compares two values.  Only values of the same type may be compared, comparing values of different
+     * types, or values that are not present, only satisfies the not equals operator
+     */
+    static class Comparison extends FilterNode {
+        private final Operand lhs;
+        private final Operand rhs;
+        private final Operator operator;
+
+        Comparison(Operand lhs, Operator operator, Operand rhs) {
+            this.lhs = lhs;
+            this.operator = operator;
+            this.rhs = rhs;
+        }
+
+        Operand getLhs() {
+            return lhs;
+        }
+
+        Operator getOperator() {
+            return operator;
+        }
+
+        Operand getRhs() {
+            return rhs;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        boolean evaluate(AttributesMap attributes) {
+            // attributes are compared without boxing their values
+            if (lhs instanceof AttributeOperand) {
+                final int id = ((AttributeOperand) lhs).getId();
+                return
+                    rhs instanceof AttributeOperand ?
+                        compareAttributes(attributes, id, ((AttributeOperand) rhs).getId(), operator) :
+                        compareConstant(attributes, id, ((ConstantOperand) rhs).getValue(), operator);
+            } else if (rhs instanceof AttributeOperand) {
+                final int id = ((AttributeOperand) rhs).getId();
+                return compareConstant(attributes, id, ((ConstantOperand) lhs).getValue(), operator.swap());
+            }
+
+            final Object lhValue = lhs.resolve(attributes);
+            final Object rhValue = rhs.resolve(attributes);
+
+            if (lhValue == null || rhValue == null || lhValue.getClass() != rhValue.getClass()) {
+                return operator == Operator.NOT_EQUAL;
+            }
+
+            return operator.apply(((Comparable<Object>) lhValue).compareTo(rhValue));
+        }
+
+        private static boolean compareAttributes(AttributesMap attributes, int lhs, int rhs, Operator operator) {
+            final Class<?> type = attributes.getTypeById(lhs);
+
+            if (type == null || type != attributes.getTypeById(rhs)) {
+                return operator == Operator.NOT_EQUAL;
+            }
+
+            final int comparison;
+            if (type == String.class) {
+                comparison = attributes.getStringById(lhs).compareTo(attributes.getStringById(rhs));
+            } else if (type == Long.class) {
+                comparison = Long.compare(attributes.getNumberById(lhs), attributes.getNumberById(rhs));
+            } else {
+                comparison = Boolean.compare(attributes.getBooleanById(lhs), attributes.getBooleanById(rhs));
+            }
+
+            return operator.apply(comparison);
+        }
+
+        private static boolean compareConstant(AttributesMap attributes, int id, Object constant, Operator operator) {
+            if (constant instanceof Long) {
+                if (attributes.getTypeById(id) != Long.class) {
+                    return operator == Operator.NOT_EQUAL;
+                }
+                return operator.apply(Long.compare(attributes.getNumberById(id), (Long) constant));
+            } else if (constant instanceof String) {
+                final String value = attributes.getStringById(id);
+                if (value == null) {
+                    return operator == Operator.NOT_EQUAL;
+                }
+                return operator.apply(value.compareTo((String) constant));
+            }
+
+            if (attributes.getTypeById(id) != Boolean.class) {
+                return operator == Operator.NOT_EQUAL;
+            }
+            return operator.apply(Boolean.compare(attributes.getBooleanById(id), (Boolean) constant));
+        }
+
+        @Override
+        int getCost() {
+            return lhs instanceof AttributeOperand && rhs instanceof AttributeOperand ? 2 : 1;
+        }
+
+        @Override
+        String getLeafKey() {
+            // constants are keyed on the right, so that swapped comparisons are shared as well
+            return
+                lhs instanceof ConstantOperand && rhs instanceof AttributeOperand ?
+                    rhs.getKey() + " " + operator.swap() + " " + lhs.getKey() :
+                    lhs.getKey() + " " + operator + " " + rhs.getKey();
+        }
+    }
+
+    /**
+     * A node which tests the value of a single attribute, and is false whenever the attribute is not present
+     */
+    abstract static class AttributePredicate extends FilterNode {
+        private final String name;
+        private final int id;
+
+        AttributePredicate(String name) {
+            this.name = name;
+            this.id = AttributesSchema.idOf(name);
+        }
+
+        String getName() {
+            return name;
+        }
+
+        int getId() {
+            return id;
+        }
+    }
+
+    /**
+     * A node which is true if an attribute has one of a list of values.  String values are held in a hash set and
+     * number values in a sorted array, so that testing membership does not depend on the number of values
+     */
+    static class In extends AttributePredicate {
+        private final ImmutableSet<Object> values;
+        private final ImmutableSet<String> strings;
+        private final long[] numbers;
+        private final boolean containsTrue;
+        private final boolean containsFalse;
+
+        In(String name, Iterable<Object> values) {
+            super(name);
+            this.values = ImmutableSet.copyOf(values);
+
+            final ImmutableSet.Builder<String> strings = ImmutableSet.builder();
+            final SortedSet<Long> numbers = Sets.newTreeSet();
+            for (final Object value : this.values) {
+                if (value instanceof String) {
+                    strings.add((String) value);
+                } else if (value instanceof Long) {
+                    numbers.add((Long) value);
+                }
+            }
+
+            this.strings = strings.build();
+            this.numbers = Longs.toArray(numbers);
+            containsTrue = this.values.contains(true);
+            containsFalse = this.values.contains(false);
+        }
+
+        Set<Object> getValues() {
+            return values;
+        }
+
+        @Override
+        boolean evaluate(AttributesMap attributes) {
+            final Class<?> type = attributes.getTypeById(getId());
+
+            if (type == String.class) {
+                return strings.contains(attributes.getStringById(getId()));
+            } else if (type == Long.class) {
+                return Arrays.binarySearch(numbers, attributes.getNumberById(getId())) >= 0;
+            } else if (type == Boolean.class) {
+                return attributes.getBooleanById(getId()) ? containsTrue : containsFalse;
+            }
+
+            return false;
+        }
+
+        @Override
+        String getLeafKey() {
+            // the values are keyed in sorted order, so that lists of the same values in any order are shared
+            final List<String> keys = Lists.newArrayList();
+            for (final Object value : values) {
+                keys.add(new ConstantOperand(value).getKey());
+            }
+            Collections.sort(keys);
+            return "attribute:" + getName() + " IN " + Joiner.on(' ').join(keys);
+        }
+    }
+
+    /**
+     * A node which is true if a string attribute starts with a prefix
+     */
+    static class StartsWith extends AttributePredicate {
+        private final String prefix;
+
+        StartsWith(String name, String prefix) {
+            super(name);
+            this.prefix = prefix;
+        }
+
+        @Override
+        boolean evaluate(AttributesMap attributes) {
+            final String value = attributes.getStringById(getId());
+            return value != null && value.startsWith(prefix);
+        }
+
+        @Override
+        String getLeafKey() {
+            return "attribute:" + getName() + " STARTS_WITH " + new ConstantOperand(prefix).getKey();
+        }
+    }
+
+    /**
+     * A node which is true if the whole of a string attribute matches a regular expression, which is compiled once
+     * along with the expression
+     */
+    static class Matches extends AttributePredicate {
+        // matching a regular expression costs far more than any other leaf
+        private static final int COST = 4;
+        private final Pattern pattern;
+
+        Matches(String name, Pattern pattern) {
+            super(name);
+            this.pattern = pattern;
+        }
+
+        @Override
+        boolean evaluate(AttributesMap attributes) {
+            final String value = attributes.getStringById(getId());
+            return value != null && pattern.matcher(value).matches();
+        }
+
+        @Override
+        int getCost() {
+            return COST;
+        }
+
+        @Override
+        String getLeafKey() {
+            return "attribute:" + getName() + " MATCHES " + new ConstantOperand(pattern.pattern()).getKey();
+        }
+    }
+
+    /**
+     * A leaf shared by the expressions of a filter set, whose result is evaluated at most once per evaluation of the
+     * set
+     */
+    static class SharedLeaf extends FilterNode {
+        private final int index;
+        private final FilterNode leaf;
+
+        SharedLeaf(int index, FilterNode leaf) {
+            this.index = index;
+            this.leaf = leaf;
+        }
+
+        int getIndex() {
+            return index;
+        }
+
+        FilterNode getLeaf() {
+            return leaf;
+        }
+
+        @Override
+        boolean evaluate(AttributesMap attributes) {
+            return leaf.evaluate(attributes);
+        }
+
+        @Override
+        boolean evaluate(AttributesMap attributes, FilterSet.Evaluation evaluation) {
+            return evaluation.evaluateLeaf(index, leaf);
+        }
+
+        @Override
+        int getCost() {
+            return leaf.getCost();
+        }
+    }
+
+    /**
+     * A comparison operator
+     */
+    enum Operator {
+        LESS_THAN,
+        GREATER_THAN,
+        LESS_THAN_OR_EQUAL,
+        GREATER_THAN_OR_EQUAL,
+        EQUAL,
+        NOT_EQUAL;
+
+        /**
+         * Returns the operator to use when the operands of a comparison are swapped
+         */
+        Operator swap() {
+            switch (this) {
+                case LESS_THAN:
+                    return GREATER_THAN;
+                case GREATER_THAN:
+                    return LESS_THAN;
+                case LESS_THAN_OR_EQUAL:
+                    return GREATER_THAN_OR_EQUAL;
+                case GREATER_THAN_OR_EQUAL:
+                    return LESS_THAN_OR_EQUAL;
+                default:
+                    return this;
+            }
+        }
+
+        static Operator of(String text) {
+            switch (text) {
+                case "<":
+                    return LESS_THAN;
+                case ">":
+                    return GREATER_THAN;
+                case "<=":
+                    return LESS_THAN_OR_EQUAL;
+                case ">=":
+                    return GREATER_THAN_OR_EQUAL;
+                case "=":
+                    return EQUAL;
+                case "<>":
+                case "!=":
+                    return NOT_EQUAL;
+                default:
+                    throw new IllegalArgumentException(String.format("unsupported comparison operator %s", text));
+            }
+        }
+
+        /**
+         * Applies the operator to the result of a compareTo() call
+         */
+        boolean apply(int comparison) {
+            switch (this) {
+                case LESS_THAN:
+                    return comparison < 0;
+                case GREATER_THAN:
+                    return comparison > 0;
+                case LESS_THAN_OR_EQUAL:
+                    return comparison <= 0;
+                case GREATER_THAN_OR_EQUAL:
+                    return comparison >= 0;
+                case EQUAL:
+                    return comparison == 0;
+                case NOT_EQUAL:
+                    return comparison != 0;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * One side of a comparison, either a constant or an attribute
+     */
+    abstract static class Operand {
+        /**
+         * Returns the value of the operand, or null if it has no value
+         */
+        abstract Object resolve(AttributesMap attributes);
+
+        /**
+         * Returns a key which is equal for operands that always resolve to the same value
+         */
+        abstract String getKey();
+    }
+
+    /**
+     * An operand whose value was parsed once, when the expression was compiled
+     */
+    static class ConstantOperand extends Operand {
+        private final Object value;
+
+        ConstantOperand(Object value) {
+            this.value = value;
+        }
+
+        Object getValue() {
+            return value;
+        }
+
+        @Override
+        Object resolve(AttributesMap attributes) {
+            return value;
+        }
+
+        @Override
+        String getKey() {
+            // the length is included so that no string constant can be mistaken for the rest of a key
+            final String text = value.toString();
+            return value.getClass().getSimpleName() + ":" + text.length() + ":" + text;
+        }
+    }
+
+    /**
+     * An operand whose value is looked up from the attributes being evaluated
+     */
+    static class AttributeOperand extends Operand {
+        private final String name;
+        private final int id;
+
+        AttributeOperand(String name) {
+            this.name = name;
+            this.id = AttributesSchema.idOf(name);
+        }
+
+        String getName() {
+            return name;
+        }
+
+        int getId() {
+            return id;
+        }
+
+        @Override
+        Object resolve(AttributesMap attributes) {
+            return attributes.getById(id);
+        }
+
+        @Override
+        String getKey() {
+            return "attribute:" + name;
+        }
+    }
+}
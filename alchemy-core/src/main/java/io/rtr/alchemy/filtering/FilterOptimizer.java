@@ -0,0 +1,122 @@
+package io.rtr.alchemy.filtering;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import io.rtr.alchemy.identities.AttributesMap;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reduces compiled expressions to a minimal form, so that nothing whose value is known before evaluation is evaluated.
+ * Comparisons of constants and constants within and/or/not nodes are folded, nested and/or nodes of the same kind are
+ * flattened, double negations and repeated leaves are removed
+ */
+class FilterOptimizer {
+    private FilterOptimizer() {
+    }
+
+    static FilterNode optimize(FilterNode node) {
+        return fold(node, null);
+    }
+
+    /**
+     * Optimizes an expression for attributes which can only ever contain the given attribute names, so that anything
+     * depending on any other attribute is folded to its value when that attribute is not present
+     */
+    static FilterNode resolve(FilterNode node, Set<String> supportedAttributes) {
+        return fold(node, supportedAttributes);
+    }
+
+    private static FilterNode fold(FilterNode node, Set<String> supportedAttributes) {
+        if (node instanceof FilterNode.Not) {
+            final FilterNode child = fold(((FilterNode.Not) node).getChild(), supportedAttributes);
+            if (child instanceof FilterNode.Constant) {
+                return FilterNode.Constant.of(!((FilterNode.Constant) child).getValue());
+            } else if (child instanceof FilterNode.Not) {
+                return ((FilterNode.Not) child).getChild();
+            }
+            return new FilterNode.Not(child);
+        } else if (node instanceof FilterNode.And) {
+            final List<FilterNode> children = foldChildren((FilterNode.Junction) node, false, supportedAttributes);
+            return
+                children == null ? FilterNode.Constant.FALSE :
+                children.isEmpty() ? FilterNode.Constant.TRUE :
+                children.size() == 1 ? children.get(0) :
+                new FilterNode.And(children.toArray(new FilterNode[children.size()]));
+        } else if (node instanceof FilterNode.Or) {
+            final List<FilterNode> children = foldChildren((FilterNode.Junction) node, true, supportedAttributes);
+            return
+                children == null ? FilterNode.Constant.TRUE :
+                children.isEmpty() ? FilterNode.Constant.FALSE :
+                children.size() == 1 ? children.get(0) :
+                new FilterNode.Or(children.toArray(new FilterNode[children.size()]));
+        } else if (node instanceof FilterNode.Truthy) {
+            if (!isSupported(((FilterNode.Truthy) node).getName(), supportedAttributes)) {
+                return FilterNode.Constant.FALSE;
+            }
+        } else if (node instanceof FilterNode.AttributePredicate) {
+            if (!isSupported(((FilterNode.AttributePredicate) node).getName(), supportedAttributes)) {
+                return FilterNode.Constant.FALSE;
+            }
+        } else if (node instanceof FilterNode.Comparison) {
+            final FilterNode.Comparison comparison = (FilterNode.Comparison) node;
+            if (comparison.getLhs() instanceof FilterNode.ConstantOperand &&
+                comparison.getRhs() instanceof FilterNode.ConstantOperand) {
+                return FilterNode.Constant.of(comparison.evaluate(AttributesMap.empty()));
+            } else if (!isSupported(comparison.getLhs(), supportedAttributes) ||
+                       !isSupported(comparison.getRhs(), supportedAttributes)) {
+                // a value that is not present only satisfies the not equals operator
+                return FilterNode.Constant.of(comparison.getOperator() == FilterNode.Operator.NOT_EQUAL);
+            }
+        }
+
+        return node;
+    }
+
+    /**
+     * Folds the children of an and/or node, returning null if a child folds to the value which decides the node's
+     * value, otherwise the children whose value is not known, with the children of nested nodes of the same kind
+     */
+    private static List<FilterNode> foldChildren(FilterNode.Junction node,
+                                                 boolean decidingValue,
+                                                 Set<String> supportedAttributes) {
+        final List<FilterNode> children = Lists.newArrayList();
+        final Set<String> leafKeys = Sets.newHashSet();
+
+        for (final FilterNode child : node.getChildren()) {
+            final FilterNode folded = fold(child, supportedAttributes);
+            if (folded instanceof FilterNode.Constant) {
+                if (((FilterNode.Constant) folded).getValue() == decidingValue) {
+                    return null;
+                }
+                continue;
+            }
+
+            final FilterNode[] flattened =
+                folded.getClass() == node.getClass() ?
+                    ((FilterNode.Junction) folded).getChildren() :
+                    new FilterNode[] {folded};
+
+            for (final FilterNode leaf : flattened) {
+                // a leaf repeated within the same and/or node cannot change its value
+                final String leafKey = leaf.getLeafKey();
+                if (leafKey == null || leafKeys.add(leafKey)) {
+                    children.add(leaf);
+                }
+            }
+        }
+
+        return children;
+    }
+
+    private static boolean isSupported(String name, Set<String> supportedAttributes) {
+        return supportedAttributes == null || supportedAttributes.contains(name);
+    }
+
+    private static boolean isSupported(FilterNode.Operand operand, Set<String> supportedAttributes) {
+        return
+            !(operand instanceof FilterNode.AttributeOperand) ||
+            isSupported(((FilterNode.AttributeOperand) operand).getName(), supportedAttributes);
+    }
+}
@@ -15,17 +15,20 @@ public class FilterParser extends Parser {
 	protected static final PredictionContextCache _sharedContextCache =
 		new PredictionContextCache();
 	public static final int
-		T__1=1, T__0=2, AND=3, OR=4, NOT=5, NUMBER=6, STRING=7, BOOLEAN=8, IDENTIFIER=9, 
-		COMPARISON=10, WS=11;
+		T__2=1, T__1=2, T__0=3, AND=4, OR=5, NOT=6, IN=7, BETWEEN=8, STARTS_WITH=9, 
+		MATCHES=10, NUMBER=11, STRING=12, BOOLEAN=13, IDENTIFIER=14, COMPARISON=15, 
+		WS=16;
 	public static final String[] tokenNames = {
-		"<INVALID>", "')'", "'('", "AND", "OR", "NOT", "NUMBER", "STRING", "BOOLEAN", 
-		"IDENTIFIER", "COMPARISON", "WS"
+		"<INVALID>", "'('", "')'", "','", "AND", "OR", "NOT", "'in'", "'between'", 
+		"'startsWith'", "'matches'", "NUMBER", "STRING", "BOOLEAN", "IDENTIFIER", 
+		"COMPARISON", "WS"
 	};
 	public static final int
-		RULE_exp = 0, RULE_term = 1, RULE_factor = 2, RULE_comparison = 3, RULE_constant = 4, 
-		RULE_value = 5;
+		RULE_exp = 0, RULE_term = 1, RULE_factor = 2, RULE_comparison = 3, RULE_membership = 4, 
+		RULE_match = 5, RULE_range = 6, RULE_constant = 7, RULE_value = 8, RULE_identifier = 9;
 	public static final String[] ruleNames = {
-		"exp", "term", "factor", "comparison", "constant", "value"
+		"exp", "term", "factor", "comparison", "membership", "match", "range", 
+		"constant", "value", "identifier"
 	};
 
 	@Override
@@ -48,13 +51,13 @@ public class FilterParser extends Parser {
 		_interp = new ParserATNSimulator(this,_ATN,_decisionToDFA,_sharedContextCache);
 	}
 	public static class ExpContext extends ParserRuleContext {
+		public ExpContext exp() {
+			return getRuleContext(ExpContext.class,0);
+		}
 		public TermContext term() {
 			return getRuleContext(TermContext.class,0);
 		}
 		public TerminalNode OR() { return getToken(FilterParser.OR, 0); }
-		public ExpContext exp() {
-			return getRuleContext(ExpContext.class,0);
-		}
 		public ExpContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
 		}
@@ -85,10 +88,10 @@ public class FilterParser extends Parser {
 			enterOuterAlt(_localctx, 1);
 			{
 			{
-			setState(13); term();
+			setState(21); term();
 			}
 			_ctx.stop = _input.LT(-1);
-			setState(20);
+			setState(28);
 			_errHandler.sync(this);
 			_alt = getInterpreter().adaptivePredict(_input,0,_ctx);
 			while ( _alt!=2 && _alt!=ATN.INVALID_ALT_NUMBER ) {
@@ -99,14 +102,14 @@ public class FilterParser extends Parser {
 					{
 					_localctx = new ExpContext(_parentctx, _parentState);
 					pushNewRecursionContext(_localctx, _startState, RULE_exp);
-					setState(15);
+					setState(23);
 					if (!(precpred(_ctx, 1))) throw new FailedPredicateException(this, "precpred(_ctx, 1)");
-					setState(16); match(OR);
-					setState(17); term();
+					setState(24); match(OR);
+					setState(25); term();
 					}
 					} 
 				}
-				setState(22);
+				setState(30);
 				_errHandler.sync(this);
 				_alt = getInterpreter().adaptivePredict(_input,0,_ctx);
 			}
@@ -124,13 +127,13 @@ public class FilterParser extends Parser {
 	}
 
 	public static class TermContext extends ParserRuleContext {
+		public FactorContext factor() {
+			return getRuleContext(FactorContext.class,0);
+		}
 		public TermContext term() {
 			return getRuleContext(TermContext.class,0);
 		}
 		public TerminalNode AND() { return getToken(FilterParser.AND, 0); }
-		public FactorContext factor() {
-			return getRuleContext(FactorContext.class,0);
-		}
 		public TermContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
 		}
@@ -149,21 +152,21 @@ public class FilterParser extends Parser {
 		TermContext _localctx = new TermContext(_ctx, getState());
 		enterRule(_localctx, 2, RULE_term);
 		try {
-			setState(28);
+			setState(36);
 			switch ( getInterpreter().adaptivePredict(_input,1,_ctx) ) {
 			case 1:
 				enterOuterAlt(_localctx, 1);
 				{
-				setState(23); factor();
+				setState(31); factor();
 				}
 				break;
 
 			case 2:
 				enterOuterAlt(_localctx, 2);
 				{
-				setState(24); factor();
-				setState(25); match(AND);
-				setState(26); term();
+				setState(32); factor();
+				setState(33); match(AND);
+				setState(34); term();
 				}
 				break;
 			}
@@ -180,18 +183,27 @@ public class FilterParser extends Parser {
 	}
 
 	public static class FactorContext extends ParserRuleContext {
+		public ExpContext exp() {
+			return getRuleContext(ExpContext.class,0);
+		}
+		public TerminalNode NOT() { return getToken(FilterParser.NOT, 0); }
 		public ValueContext value() {
 			return getRuleContext(ValueContext.class,0);
 		}
+		public FactorContext factor() {
+			return getRuleContext(FactorContext.class,0);
+		}
 		public ComparisonContext comparison() {
 			return getRuleContext(ComparisonContext.class,0);
 		}
-		public ExpContext exp() {
-			return getRuleContext(ExpContext.class,0);
+		public MatchContext match() {
+			return getRuleContext(MatchContext.class,0);
 		}
-		public TerminalNode NOT() { return getToken(FilterParser.NOT, 0); }
-		public FactorContext factor() {
-			return getRuleContext(FactorContext.class,0);
+		public MembershipContext membership() {
+			return getRuleContext(MembershipContext.class,0);
+		}
+		public RangeContext range() {
+			return getRuleContext(RangeContext.class,0);
 		}
 		public FactorContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
@@ -211,36 +223,57 @@ public class FilterParser extends Parser {
 		FactorContext _localctx = new FactorContext(_ctx, getState());
 		enterRule(_localctx, 4, RULE_factor);
 		try {
-			setState(38);
+			setState(49);
 			switch ( getInterpreter().adaptivePredict(_input,2,_ctx) ) {
 			case 1:
 				enterOuterAlt(_localctx, 1);
 				{
-				setState(30); match(2);
-				setState(31); exp(0);
-				setState(32); match(1);
+				setState(38); match(1);
+				setState(39); exp(0);
+				setState(40); match(2);
 				}
 				break;
 
 			case 2:
 				enterOuterAlt(_localctx, 2);
 				{
-				setState(34); value();
+				setState(42); value();
 				}
 				break;
 
 			case 3:
 				enterOuterAlt(_localctx, 3);
 				{
-				setState(35); comparison();
+				setState(43); comparison();
 				}
 				break;
 
 			case 4:
 				enterOuterAlt(_localctx, 4);
 				{
-				setState(36); match(NOT);
-				setState(37); factor();
+				setState(44); membership();
+				}
+				break;
+
+			case 5:
+				enterOuterAlt(_localctx, 5);
+				{
+				setState(45); match();
+				}
+				break;
+
+			case 6:
+				enterOuterAlt(_localctx, 6);
+				{
+				setState(46); range();
+				}
+				break;
+
+			case 7:
+				enterOuterAlt(_localctx, 7);
+				{
+				setState(47); match(NOT);
+				setState(48); factor();
 				}
 				break;
 			}
@@ -257,13 +290,13 @@ public class FilterParser extends Parser {
 	}
 
 	public static class ComparisonContext extends ParserRuleContext {
+		public List<ValueContext> value() {
+			return getRuleContexts(ValueContext.class);
+		}
 		public ValueContext value(int i) {
 			return getRuleContext(ValueContext.class,i);
 		}
 		public TerminalNode COMPARISON() { return getToken(FilterParser.COMPARISON, 0); }
-		public List<ValueContext> value() {
-			return getRuleContexts(ValueContext.class);
-		}
 		public ComparisonContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
 		}
@@ -284,9 +317,179 @@ public class FilterParser extends Parser {
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(40); value();
-			setState(41); match(COMPARISON);
-			setState(42); value();
+			setState(51); value();
+			setState(52); match(COMPARISON);
+			setState(53); value();
+			}
+		}
+		catch (RecognitionException re) {
+			_localctx.exception = re;
+			_errHandler.reportError(this, re);
+			_errHandler.recover(this, re);
+		}
+		finally {
+			exitRule();
+		}
+		return _localctx;
+	}
+
+	public static class MembershipContext extends ParserRuleContext {
+		public TerminalNode NOT() { return getToken(FilterParser.NOT, 0); }
+		public List<ConstantContext> constant() {
+			return getRuleContexts(ConstantContext.class);
+		}
+		public IdentifierContext identifier() {
+			return getRuleContext(IdentifierContext.class,0);
+		}
+		public ConstantContext constant(int i) {
+			return getRuleContext(ConstantContext.class,i);
+		}
+		public TerminalNode IN() { return getToken(FilterParser.IN, 0); }
+		public MembershipContext(ParserRuleContext parent, int invokingState) {
+			super(parent, invokingState);
+		}
+		@Override public int getRuleIndex() { return RULE_membership; }
+		@Override
+		public void enterRule(ParseTreeListener listener) {
+			if ( listener instanceof FilterListener ) ((FilterListener)listener).enterMembership(this);
+		}
+		@Override
+		public void exitRule(ParseTreeListener listener) {
+			if ( listener instanceof FilterListener ) ((FilterListener)listener).exitMembership(this);
+		}
+	}
+
+	public final MembershipContext membership() throws RecognitionException {
+		MembershipContext _localctx = new MembershipContext(_ctx, getState());
+		enterRule(_localctx, 8, RULE_membership);
+		int _la;
+		try {
+			enterOuterAlt(_localctx, 1);
+			{
+			setState(55); identifier();
+			setState(57);
+			_la = _input.LA(1);
+			if (_la==NOT) {
+				{
+				setState(56); match(NOT);
+				}
+			}
+
+			setState(59); match(IN);
+			setState(60); match(1);
+			setState(61); constant();
+			setState(66);
+			_errHandler.sync(this);
+			_la = _input.LA(1);
+			while (_la==3) {
+				{
+				{
+				setState(62); match(3);
+				setState(63); constant();
+				}
+				}
+				setState(68);
+				_errHandler.sync(this);
+				_la = _input.LA(1);
+			}
+			setState(69); match(2);
+			}
+		}
+		catch (RecognitionException re) {
+			_localctx.exception = re;
+			_errHandler.reportError(this, re);
+			_errHandler.recover(this, re);
+		}
+		finally {
+			exitRule();
+		}
+		return _localctx;
+	}
+
+	public static class MatchContext extends ParserRuleContext {
+		public TerminalNode MATCHES() { return getToken(FilterParser.MATCHES, 0); }
+		public TerminalNode STRING() { return getToken(FilterParser.STRING, 0); }
+		public TerminalNode STARTS_WITH() { return getToken(FilterParser.STARTS_WITH, 0); }
+		public IdentifierContext identifier() {
+			return getRuleContext(IdentifierContext.class,0);
+		}
+		public MatchContext(ParserRuleContext parent, int invokingState) {
+			super(parent, invokingState);
+		}
+		@Override public int getRuleIndex() { return RULE_match; }
+		@Override
+		public void enterRule(ParseTreeListener listener) {
+			if ( listener instanceof FilterListener ) ((FilterListener)listener).enterMatch(this);
+		}
+		@Override
+		public void exitRule(ParseTreeListener listener) {
+			if ( listener instanceof FilterListener ) ((FilterListener)listener).exitMatch(this);
+		}
+	}
+
+	public final MatchContext match() throws RecognitionException {
+		MatchContext _localctx = new MatchContext(_ctx, getState());
+		enterRule(_localctx, 10, RULE_match);
+		int _la;
+		try {
+			enterOuterAlt(_localctx, 1);
+			{
+			setState(71); identifier();
+			setState(72);
+			_la = _input.LA(1);
+			if ( !(_la==STARTS_WITH || _la==MATCHES) ) {
+			_errHandler.recoverInline(this);
+			}
+			consume();
+			setState(73); match(STRING);
+			}
+		}
+		catch (RecognitionException re) {
+			_localctx.exception = re;
+			_errHandler.reportError(this, re);
+			_errHandler.recover(this, re);
+		}
+		finally {
+			exitRule();
+		}
+		return _localctx;
+	}
+
+	public static class RangeContext extends ParserRuleContext {
+		public TerminalNode NUMBER(int i) {
+			return getToken(FilterParser.NUMBER, i);
+		}
+		public TerminalNode BETWEEN() { return getToken(FilterParser.BETWEEN, 0); }
+		public TerminalNode AND() { return getToken(FilterParser.AND, 0); }
+		public IdentifierContext identifier() {
+			return getRuleContext(IdentifierContext.class,0);
+		}
+		public List<TerminalNode> NUMBER() { return getTokens(FilterParser.NUMBER); }
+		public RangeContext(ParserRuleContext parent, int invokingState) {
+			super(parent, invokingState);
+		}
+		@Override public int getRuleIndex() { return RULE_range; }
+		@Override
+		public void enterRule(ParseTreeListener listener) {
+			if ( listener instanceof FilterListener ) ((FilterListener)listener).enterRange(this);
+		}
+		@Override
+		public void exitRule(ParseTreeListener listener) {
+			if ( listener instanceof FilterListener ) ((FilterListener)listener).exitRange(this);
+		}
+	}
+
+	public final RangeContext range() throws RecognitionException {
+		RangeContext _localctx = new RangeContext(_ctx, getState());
+		enterRule(_localctx, 12, RULE_range);
+		try {
+			enterOuterAlt(_localctx, 1);
+			{
+			setState(75); identifier();
+			setState(76); match(BETWEEN);
+			setState(77); match(NUMBER);
+			setState(78); match(AND);
+			setState(79); match(NUMBER);
 			}
 		}
 		catch (RecognitionException re) {
@@ -301,9 +504,9 @@ public class FilterParser extends Parser {
 	}
 
 	public static class ConstantContext extends ParserRuleContext {
+		public TerminalNode STRING() { return getToken(FilterParser.STRING, 0); }
 		public TerminalNode BOOLEAN() { return getToken(FilterParser.BOOLEAN, 0); }
 		public TerminalNode NUMBER() { return getToken(FilterParser.NUMBER, 0); }
-		public TerminalNode STRING() { return getToken(FilterParser.STRING, 0); }
 		public ConstantContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
 		}
@@ -320,12 +523,12 @@ public class FilterParser extends Parser {
 
 	public final ConstantContext constant() throws RecognitionException {
 		ConstantContext _localctx = new ConstantContext(_ctx, getState());
-		enterRule(_localctx, 8, RULE_constant);
+		enterRule(_localctx, 14, RULE_constant);
 		int _la;
 		try {
 			enterOuterAlt(_localctx, 1);
 			{
-			setState(44);
+			setState(81);
 			_la = _input.LA(1);
 			if ( !((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << NUMBER) | (1L << STRING) | (1L << BOOLEAN))) != 0)) ) {
 			_errHandler.recoverInline(this);
@@ -345,10 +548,12 @@ public class FilterParser extends Parser {
 	}
 
 	public static class ValueContext extends ParserRuleContext {
-		public TerminalNode IDENTIFIER() { return getToken(FilterParser.IDENTIFIER, 0); }
 		public ConstantContext constant() {
 			return getRuleContext(ConstantContext.class,0);
 		}
+		public IdentifierContext identifier() {
+			return getRuleContext(IdentifierContext.class,0);
+		}
 		public ValueContext(ParserRuleContext parent, int invokingState) {
 			super(parent, invokingState);
 		}
@@ -365,22 +570,26 @@ public class FilterParser extends Parser {
 
 	public final ValueContext value() throws RecognitionException {
 		ValueContext _localctx = new ValueContext(_ctx, getState());
-		enterRule(_localctx, 10, RULE_value);
+		enterRule(_localctx, 16, RULE_value);
 		try {
-			setState(48);
+			setState(85);
 			switch (_input.LA(1)) {
 			case NUMBER:
 			case STRING:
 			case BOOLEAN:
 				enterOuterAlt(_localctx, 1);
 				{
-				setState(46); constant();
+				setState(83); constant();
 				}
 				break;
+			case IN:
+			case BETWEEN:
+			case STARTS_WITH:
+			case MATCHES:
 			case IDENTIFIER:
 				enterOuterAlt(_localctx, 2);
 				{
-				setState(47); match(IDENTIFIER);
+				setState(84); identifier();
 				}
 				break;
 			default:
@@ -398,6 +607,52 @@ public class FilterParser extends Parser {
 		return _localctx;
 	}
 
+	public static class IdentifierContext extends ParserRuleContext {
+		public TerminalNode BETWEEN() { return getToken(FilterParser.BETWEEN, 0); }
+		public TerminalNode MATCHES() { return getToken(FilterParser.MATCHES, 0); }
+		public TerminalNode STARTS_WITH() { return getToken(FilterParser.STARTS_WITH, 0); }
+		public TerminalNode IDENTIFIER() { return getToken(FilterParser.IDENTIFIER, 0); }
+		public TerminalNode IN() { return getToken(FilterParser.IN, 0); }
+		public IdentifierContext(ParserRuleContext parent, int invokingState) {
+			super(parent, invokingState);
+		}
+		@Override public int getRuleIndex() { return RULE_identifier; }
+		@Override
+		public void enterRule(ParseTreeListener listener) {
+			if ( listener instanceof FilterListener ) ((FilterListener)listener).enterIdentifier(this);
+		}
+		@Override
+		public void exitRule(ParseTreeListener listener) {
+			if ( listener instanceof FilterListener ) ((FilterListener)listener).exitIdentifier(this);
+		}
+	}
+
+	public final IdentifierContext identifier() throws RecognitionException {
+		IdentifierContext _localctx = new IdentifierContext(_ctx, getState());
+		enterRule(_localctx, 18, RULE_identifier);
+		int _la;
+		try {
+			enterOuterAlt(_localctx, 1);
+			{
+			setState(87);
+			_la = _input.LA(1);
+			if ( !((((_la) & ~0x3f) == 0 && ((1L << _la) & ((1L << IN) | (1L << BETWEEN) | (1L << STARTS_WITH) | (1L << MATCHES) | (1L << IDENTIFIER))) != 0)) ) {
+			_errHandler.recoverInline(this);
+			}
+			consume();
+			}
+		}
+		catch (RecognitionException re) {
+			_localctx.exception = re;
+			_errHandler.reportError(this, re);
+			_errHandler.recover(this, re);
+		}
+		finally {
+			exitRule();
+		}
+		return _localctx;
+	}
+
 	public boolean sempred(RuleContext _localctx, int ruleIndex, int predIndex) {
 		switch (ruleIndex) {
 		case 0: return exp_sempred((ExpContext)_localctx, predIndex);
@@ -412,20 +667,29 @@ public class FilterParser extends Parser {
 	}
 
 	public static final String _serializedATN =
-		"\3\u0430\ud6d1\u8206\uad2d\u4417\uaef1\u8d80\uaadd\3\r\65\4\2\t\2\4\3"+
-		"\t\3\4\4\t\4\4\5\t\5\4\6\t\6\4\7\t\7\3\2\3\2\3\2\3\2\3\2\3\2\7\2\25\n"+
-		"\2\f\2\16\2\30\13\2\3\3\3\3\3\3\3\3\3\3\5\3\37\n\3\3\4\3\4\3\4\3\4\3\4"+
-		"\3\4\3\4\3\4\5\4)\n\4\3\5\3\5\3\5\3\5\3\6\3\6\3\7\3\7\5\7\63\n\7\3\7\2"+
-		"\3\2\b\2\4\6\b\n\f\2\3\3\2\b\n\64\2\16\3\2\2\2\4\36\3\2\2\2\6(\3\2\2\2"+
-		"\b*\3\2\2\2\n.\3\2\2\2\f\62\3\2\2\2\16\17\b\2\1\2\17\20\5\4\3\2\20\26"+
-		"\3\2\2\2\21\22\f\3\2\2\22\23\7\6\2\2\23\25\5\4\3\2\24\21\3\2\2\2\25\30"+
-		"\3\2\2\2\26\24\3\2\2\2\26\27\3\2\2\2\27\3\3\2\2\2\30\26\3\2\2\2\31\37"+
-		"\5\6\4\2\32\33\5\6\4\2\33\34\7\5\2\2\34\35\5\4\3\2\35\37\3\2\2\2\36\31"+
-		"\3\2\2\2\36\32\3\2\2\2\37\5\3\2\2\2 !\7\4\2\2!\"\5\2\2\2\"#\7\3\2\2#)"+
-		"\3\2\2\2$)\5\f\7\2%)\5\b\5\2&\'\7\7\2\2\')\5\6\4\2( \3\2\2\2($\3\2\2\2"+
-		"(%\3\2\2\2(&\3\2\2\2)\7\3\2\2\2*+\5\f\7\2+,\7\f\2\2,-\5\f\7\2-\t\3\2\2"+
-		"\2./\t\2\2\2/\13\3\2\2\2\60\63\5\n\6\2\61\63\7\13\2\2\62\60\3\2\2\2\62"+
-		"\61\3\2\2\2\63\r\3\2\2\2\6\26\36(\62";
+		"\3\u0430\ud6d1\u8206\uad2d\u4417\uaef1\u8d80\uaadd\3\22\\\4\2\t\2\4\3"+
+		"\t\3\4\4\t\4\4\5\t\5\4\6\t\6\4\7\t\7\4\b\t\b\4\t\t\t\4\n\t\n\4\13\t\13"+
+		"\3\2\3\2\3\2\3\2\3\2\3\2\7\2\35\n\2\f\2\16\2 \13\2\3\3\3\3\3\3\3\3\3\3"+
+		"\5\3\'\n\3\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\3\4\5\4\64\n\4\3\5"+
+		"\3\5\3\5\3\5\3\6\3\6\5\6<\n\6\3\6\3\6\3\6\3\6\3\6\7\6C\n\6\f\6\16\6F\13"+
+		"\6\3\6\3\6\3\7\3\7\3\7\3\7\3\b\3\b\3\b\3\b\3\b\3\b\3\t\3\t\3\n\3\n\5\n"+
+		"X\n\n\3\13\3\13\3\13\2\3\2\f\2\4\6\b\n\f\16\20\22\24\2\5\3\2\13\f\3\2"+
+		"\r\17\4\2\t\f\20\20\\\2\26\3\2\2\2\4&\3\2\2\2\6\63\3\2\2\2\b\65\3\2\2"+
+		"\2\n9\3\2\2\2\fI\3\2\2\2\16M\3\2\2\2\20S\3\2\2\2\22W\3\2\2\2\24Y\3\2\2"+
+		"\2\26\27\b\2\1\2\27\30\5\4\3\2\30\36\3\2\2\2\31\32\f\3\2\2\32\33\7\7\2"+
+		"\2\33\35\5\4\3\2\34\31\3\2\2\2\35 \3\2\2\2\36\34\3\2\2\2\36\37\3\2\2\2"+
+		"\37\3\3\2\2\2 \36\3\2\2\2!\'\5\6\4\2\"#\5\6\4\2#$\7\6\2\2$%\5\4\3\2%\'"+
+		"\3\2\2\2&!\3\2\2\2&\"\3\2\2\2\'\5\3\2\2\2()\7\3\2\2)*\5\2\2\2*+\7\4\2"+
+		"\2+\64\3\2\2\2,\64\5\22\n\2-\64\5\b\5\2.\64\5\n\6\2/\64\5\f\7\2\60\64"+
+		"\5\16\b\2\61\62\7\b\2\2\62\64\5\6\4\2\63(\3\2\2\2\63,\3\2\2\2\63-\3\2"+
+		"\2\2\63.\3\2\2\2\63/\3\2\2\2\63\60\3\2\2\2\63\61\3\2\2\2\64\7\3\2\2\2"+
+		"\65\66\5\22\n\2\66\67\7\21\2\2\678\5\22\n\28\t\3\2\2\29;\5\24\13\2:<\7"+
+		"\b\2\2;:\3\2\2\2;<\3\2\2\2<=\3\2\2\2=>\7\t\2\2>?\7\3\2\2?D\5\20\t\2@A"+
+		"\7\5\2\2AC\5\20\t\2B@\3\2\2\2CF\3\2\2\2DB\3\2\2\2DE\3\2\2\2EG\3\2\2\2"+
+		"FD\3\2\2\2GH\7\4\2\2H\13\3\2\2\2IJ\5\24\13\2JK\t\2\2\2KL\7\16\2\2L\r\3"+
+		"\2\2\2MN\5\24\13\2NO\7\n\2\2OP\7\r\2\2PQ\7\6\2\2QR\7\r\2\2R\17\3\2\2\2"+
+		"ST\t\3\2\2T\21\3\2\2\2UX\5\20\t\2VX\5\24\13\2WU\3\2\2\2WV\3\2\2\2X\23"+
+		"\3\2\2\2YZ\t\4\2\2Z\25\3\2\2\2\b\36&\63;DW";
 	public static final ATN _ATN =
 		new ATNDeserializer().deserialize(_serializedATN.toCharArray());
 	static {
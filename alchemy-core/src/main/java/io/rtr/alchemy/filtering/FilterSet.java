@@ -0,0 +1,129 @@
+package io.rtr.alchemy.filtering;
+
+import com.google.common.collect.Maps;
+import io.rtr.alchemy.identities.AttributesMap;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of filters evaluated together against the same attributes, such as the filters of every active experiment and
+ * override.  Identical comparisons and truthy checks are shared between the filters of the set, so that each is
+ * evaluated at most once per evaluation of the set, no matter how many filters contain it
+ */
+public final class FilterSet {
+    private final FilterNode[] roots;
+    private final int leafCount;
+
+    private FilterSet(List<FilterExpression> filters) {
+        final Map<String, FilterNode.SharedLeaf> leaves = Maps.newHashMap();
+        roots = new FilterNode[filters.size()];
+
+        for (int i = 0; i < roots.length; i++) {
+            roots[i] = share(filters.get(i).getRoot(), leaves);
+        }
+
+        leafCount = leaves.size();
+    }
+
+    /**
+     * Builds a set of the given filters, which are evaluated by their index in the list
+     */
+    public static FilterSet of(List<FilterExpression> filters) {
+        return new FilterSet(filters);
+    }
+
+    // rebuilds a tree with every leaf replaced by the leaf shared by all trees with an identical leaf, keeping the
+    // order learned by the junctions of the tree
+    private static FilterNode share(FilterNode node, Map<String, FilterNode.SharedLeaf> leaves) {
+        if (node instanceof FilterNode.Not) {
+            return new FilterNode.Not(share(((FilterNode.Not) node).getChild(), leaves));
+        } else if (node instanceof FilterNode.Junction) {
+            final FilterNode.Junction junction = (FilterNode.Junction) node;
+            return junction.copyWith(share(junction.getBuiltChildren(), leaves));
+        }
+
+        final String key = node.getLeafKey();
+        if (key == null) {
+            return node;
+        }
+
+        FilterNode.SharedLeaf leaf = leaves.get(key);
+        if (leaf == null) {
+            leaf = new FilterNode.SharedLeaf(leaves.size(), node);
+            leaves.put(key, leaf);
+        }
+        return leaf;
+    }
+
+    private static FilterNode[] share(FilterNode[] nodes, Map<String, FilterNode.SharedLeaf> leaves) {
+        final FilterNode[] result = new FilterNode[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            result[i] = share(nodes[i], leaves);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of filters in the set
+     */
+    public int size() {
+        return roots.length;
+    }
+
+    // the root of the filter at the given index, with its leaves shared
+    FilterNode getRoot(int filter) {
+        return roots[filter];
+    }
+
+    /**
+     * Returns the number of distinct leaves of all the filters in the set
+     */
+    public int getLeafCount() {
+        return leafCount;
+    }
+
+    /**
+     * Starts evaluating filters of the set against the given attributes
+     */
+    public Evaluation evaluate(AttributesMap attributes) {
+        return new Evaluation(attributes);
+    }
+
+    /**
+     * The evaluation of a filter set against one set of attributes, which remembers the result of every leaf it has
+     * evaluated.  Not thread-safe, an evaluation is meant to be used by one request
+     */
+    public final class Evaluation {
+        private final AttributesMap attributes;
+        private final long[] evaluated;
+        private final long[] results;
+
+        private Evaluation(AttributesMap attributes) {
+            this.attributes = attributes;
+            evaluated = new long[(leafCount + 63) >>> 6];
+            results = new long[evaluated.length];
+        }
+
+        /**
+         * Returns whether the filter at the given index of the set matches the attributes
+         */
+        public boolean matches(int filter) {
+            return roots[filter].evaluate(attributes, this);
+        }
+
+        boolean evaluateLeaf(int index, FilterNode leaf) {
+            final int word = index >>> 6;
+            final long bit = 1L << index;
+
+            if ((evaluated[word] & bit) == 0) {
+                evaluated[word] |= bit;
+                if (leaf.evaluate(attributes)) {
+                    results[word] |= bit;
+                }
+            }
+
+            return (results[word] & bit) != 0;
+        }
+    }
+}
@@ -1,90 +1,251 @@
 package io.rtr.alchemy.identities;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+/**
+ * An immutable map of attribute values, stored in arrays indexed by the slots of an attributes schema.  Maps built
+ * against the schema of an identity class only ever contain that class' supported attributes, so they never need to
+ * be filtered.  Numbers and booleans are stored unboxed, and are only boxed when read through the {@link Map}
+ * interface.  Attributes are iterated in the order they were put
+ */
 public class AttributesMap implements Map<String, Object> {
-    private static final AttributesMap EMPTY = new AttributesMap(ImmutableMap.<String, Object>of());
-    private final ImmutableMap<String, Object> values;
-
-    private AttributesMap(ImmutableMap<String, Object> values) {
-        this.values = values;
+    private static final byte ABSENT = 0;
+    private static final byte STRING = 1;
+    private static final byte NUMBER = 2;
+    private static final byte BOOLEAN = 3;
+    private static final int NO_SLOT = -1;
+    private static final AttributesMap EMPTY =
+        new AttributesMap(AttributesSchema.EMPTY, new byte[0], new long[0], new String[0], new int[0], 0);
+    private final AttributesSchema schema;
+    // the type of the value in each slot
+    private final byte[] types;
+    // the values of number slots, and of boolean slots as 0 or 1
+    private final long[] primitives;
+    private final String[] strings;
+    // the slots of the attributes, in the order they were put
+    private final int[] order;
+    private final int size;
+    private ImmutableMap<String, Object> view;
+
+    private AttributesMap(AttributesSchema schema,
+                          byte[] types,
+                          long[] primitives,
+                          String[] strings,
+                          int[] order,
+                          int size) {
+        this.schema = schema;
+        this.types = types;
+        this.primitives = primitives;
+        this.strings = strings;
+        this.order = order;
+        this.size = size;
     }
 
+    /**
+     * Returns a builder which accepts any attribute
+     */
     public static Builder newBuilder() {
-        return new Builder();
+        return new Builder(null);
+    }
+
+    /**
+     * Returns a builder which drops any attribute that is not part of the given schema
+     */
+    public static Builder newBuilder(AttributesSchema schema) {
+        return new Builder(Preconditions.checkNotNull(schema, "schema cannot be null"));
     }
 
     public static AttributesMap empty() {
         return EMPTY;
     }
 
-    @SuppressWarnings("unchecked")
-    private <T> T getValue(String name, Class<?> expectedClass, Object defaultValue) {
-        final Object value = values.get(name);
+    private int checkSlot(int slot) {
+        return slot >= 0 && slot < types.length && types[slot] != ABSENT ? slot : NO_SLOT;
+    }
 
-        if (value == null || value.getClass() != expectedClass) {
-            return (T) defaultValue;
+    // the slot holding an attribute, or -1 if the attribute is not present
+    private int slotOf(Object name) {
+        return checkSlot(schema.getSlot(name));
+    }
+
+    private int slotOfId(int id) {
+        return checkSlot(schema.getSlotById(id));
+    }
+
+    private Object box(int slot) {
+        switch (types[slot]) {
+            case STRING:
+                return strings[slot];
+            case NUMBER:
+                return primitives[slot];
+            case BOOLEAN:
+                return primitives[slot] != 0;
+            default:
+                return null;
         }
+    }
 
-        return (T) value;
+    private static Class<?> typeOf(byte type) {
+        switch (type) {
+            case STRING:
+                return String.class;
+            case NUMBER:
+                return Long.class;
+            case BOOLEAN:
+                return Boolean.class;
+            default:
+                return null;
+        }
     }
 
     public String getString(String name) {
-        return getValue(name, String.class, null);
+        return getString(name, null);
     }
 
     public String getString(String name, String defaultValue) {
-        return getValue(name, String.class, defaultValue);
+        final int slot = slotOf(name);
+        return slot != NO_SLOT && types[slot] == STRING ? strings[slot] : defaultValue;
     }
 
     public Long getNumber(String name) {
-        return getValue(name, Long.class, null);
+        final int slot = slotOf(name);
+        return slot != NO_SLOT && types[slot] == NUMBER ? primitives[slot] : null;
     }
 
     public Long getNumber(String name, long defaultValue) {
-        return getValue(name, Long.class, defaultValue);
+        final int slot = slotOf(name);
+        return slot != NO_SLOT && types[slot] == NUMBER ? primitives[slot] : defaultValue;
     }
 
     public Boolean getBoolean(String name) {
-        return getValue(name, Boolean.class, null);
+        final int slot = slotOf(name);
+        return slot != NO_SLOT && types[slot] == BOOLEAN ? primitives[slot] != 0 : null;
     }
 
     public Boolean getBoolean(String name, boolean defaultValue) {
-        return getValue(name, Boolean.class, defaultValue);
+        final int slot = slotOf(name);
+        return slot != NO_SLOT && types[slot] == BOOLEAN ? primitives[slot] != 0 : defaultValue;
     }
 
     public Class<?> getType(String name) {
-        final Object value = values.get(name);
-        return value != null ? value.getClass() : null;
+        final int slot = slotOf(name);
+        return slot != NO_SLOT ? typeOf(types[slot]) : null;
+    }
+
+    /**
+     * Returns the value of an attribute by the global id from {@link AttributesSchema#idOf(String)}
+     */
+    public Object getById(int id) {
+        final int slot = slotOfId(id);
+        return slot != NO_SLOT ? box(slot) : null;
+    }
+
+    /**
+     * Returns the type of an attribute by its global id, one of String, Long or Boolean, or null if it is not present
+     */
+    public Class<?> getTypeById(int id) {
+        final int slot = slotOfId(id);
+        return slot != NO_SLOT ? typeOf(types[slot]) : null;
+    }
+
+    /**
+     * Returns the value of a string attribute by its global id, or null if it is not a string
+     */
+    public String getStringById(int id) {
+        final int slot = slotOfId(id);
+        return slot != NO_SLOT && types[slot] == STRING ? strings[slot] : null;
+    }
+
+    /**
+     * Returns the value of a number attribute by its global id without boxing it, or 0 if it is not a number
+     */
+    public long getNumberById(int id) {
+        final int slot = slotOfId(id);
+        return slot != NO_SLOT && types[slot] == NUMBER ? primitives[slot] : 0;
+    }
+
+    /**
+     * Returns the value of a boolean attribute by its global id without boxing it, or false if it is not a boolean
+     */
+    public boolean getBooleanById(int id) {
+        final int slot = slotOfId(id);
+        return slot != NO_SLOT && types[slot] == BOOLEAN && primitives[slot] != 0;
+    }
+
+    public AttributesSchema getSchema() {
+        return schema;
+    }
+
+    // the name of the attribute put at the given position
+    String nameAt(int index) {
+        return schema.getName(order[index]);
+    }
+
+    // the slot of the attribute put at the given position
+    int slotAt(int index) {
+        return order[index];
+    }
+
+    /**
+     * Puts the value of the attribute in a slot into an identity builder without boxing it, if the attribute is present
+     */
+    void putValue(IdentityBuilder builder, int slot) {
+        if (checkSlot(slot) == NO_SLOT) {
+            return;
+        }
+
+        switch (types[slot]) {
+            case STRING:
+                builder.putString(strings[slot]);
+                break;
+            case NUMBER:
+                builder.putLong(primitives[slot]);
+                break;
+            case BOOLEAN:
+                builder.putBoolean(primitives[slot] != 0);
+                break;
+            default:
+                break;
+        }
     }
 
     @Override
     public int size() {
-        return values.size();
+        return size;
     }
 
     @Override
     public boolean isEmpty() {
-        return values.isEmpty();
+        return size == 0;
     }
 
     @Override
     public boolean containsKey(Object o) {
-        return values.containsKey(o);
+        return slotOf(o) != NO_SLOT;
     }
 
     @Override
     public boolean containsValue(Object o) {
-        return values.containsValue(o);
+        for (int i = 0; i < size; i++) {
+            if (box(order[i]).equals(o)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
     public Object get(Object o) {
-        return values.get(o);
+        final int slot = slotOf(o);
+        return slot != NO_SLOT ? box(slot) : null;
     }
 
     @Override
@@ -109,74 +270,200 @@ public class AttributesMap implements Map<String, Object> {
 
     @Override
     public Set<String> keySet() {
-        return values.keySet();
+        return getView().keySet();
     }
 
     @Override
     public Collection<Object> values() {
-        return values.values();
+        return getView().values();
     }
 
     @Override
     public Set<Entry<String, Object>> entrySet() {
-        return values.entrySet();
+        return getView().entrySet();
+    }
+
+    @Override
+    public String toString() {
+        return getView().toString();
+    }
+
+    // the map views are only built when asked for, lookups go straight to the arrays
+    private ImmutableMap<String, Object> getView() {
+        if (view == null) {
+            final ImmutableMap.Builder<String, Object> builder = ImmutableMap.builder();
+            for (int i = 0; i < size; i++) {
+                builder.put(nameAt(i), box(order[i]));
+            }
+            view = builder.build();
+        }
+        return view;
     }
 
     public AttributesMap filter(Set<String> keys) {
-        final ImmutableMap.Builder<String, Object> builder = ImmutableMap.builder();
-        for (Entry<String, Object> entry : entrySet()) {
-            if (keys.contains(entry.getKey())) {
-                builder.put(entry);
+        if (keys == schema.getNames()) {
+            return this;
+        }
+
+        final Builder builder = newBuilder();
+        for (int i = 0; i < size; i++) {
+            if (keys.contains(nameAt(i))) {
+                builder.copy(nameAt(i), this, order[i]);
             }
         }
 
-        return new AttributesMap(builder.build());
+        return builder.build();
+    }
+
+    /**
+     * Returns a map with only the attributes of the given schema, which is this map if it was built against it
+     */
+    public AttributesMap filter(AttributesSchema schema) {
+        if (schema == this.schema) {
+            return this;
+        }
+
+        final Builder builder = newBuilder(schema);
+        for (int i = 0; i < size; i++) {
+            builder.copy(nameAt(i), this, order[i]);
+        }
+
+        return builder.build();
     }
 
     public static class Builder {
-        private final ImmutableMap.Builder<String, Object> builder = ImmutableMap.builder();
+        private final AttributesSchema schema;
+        private final List<String> names;
+        private byte[] types;
+        private long[] primitives;
+        private String[] strings;
+        private int[] order;
+        private int size;
+        private boolean built;
+
+        private Builder(AttributesSchema schema) {
+            this.schema = schema;
+            this.names = schema == null ? Lists.<String>newArrayList() : null;
+        }
 
         public Builder put(String name, String value) {
             if (value != null) {
-                builder.put(name, value);
+                putValue(name, STRING, 0, value);
             }
             return this;
         }
 
         public Builder put(String name, byte value) {
-            builder.put(name, (long) value);
+            putValue(name, NUMBER, value, null);
             return this;
         }
 
         public Builder put(String name, short value) {
-            builder.put(name, (long) value);
+            putValue(name, NUMBER, value, null);
             return this;
         }
 
         public Builder put(String name, int value) {
-            builder.put(name, (long) value);
+            putValue(name, NUMBER, value, null);
             return this;
         }
 
         public Builder put(String name, long value) {
-            builder.put(name, value);
+            putValue(name, NUMBER, value, null);
             return this;
         }
 
         public Builder put(String name, boolean value) {
-            builder.put(name, value);
+            putValue(name, BOOLEAN, value ? 1 : 0, null);
             return  this;
         }
 
         public Builder put(Identity identity) {
             if (identity != null) {
-                builder.putAll(identity.computeAttributes().values);
+                final AttributesMap attributes = identity.computeAttributes();
+                for (int i = 0; i < attributes.size(); i++) {
+                    copy(attributes.nameAt(i), attributes, attributes.order[i]);
+                }
             }
             return  this;
         }
 
+        private void copy(String name, AttributesMap attributes, int slot) {
+            putValue(name, attributes.types[slot], attributes.primitives[slot], attributes.strings[slot]);
+        }
+
+        private void putValue(String name, byte type, long primitive, String string) {
+            Preconditions.checkNotNull(name, "name cannot be null");
+            final int slot;
+
+            if (built) {
+                // the arrays were handed over to a map, so they are copied before being changed
+                types = types.clone();
+                primitives = primitives.clone();
+                strings = strings.clone();
+                order = order.clone();
+                built = false;
+            }
+
+            if (schema != null) {
+                slot = schema.getSlot(name);
+                if (slot < 0) {
+                    return;
+                }
+                ensureCapacity(schema.size());
+            } else {
+                slot = size;
+                names.add(name);
+                ensureCapacity(size + 1);
+            }
+
+            Preconditions.checkArgument(types[slot] == ABSENT, "duplicate attribute %s", name);
+            types[slot] = type;
+            primitives[slot] = primitive;
+            strings[slot] = string;
+            order[size++] = slot;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (types == null) {
+                resize(Math.max(capacity, 4));
+            } else if (capacity > types.length) {
+                resize(Math.max(capacity, types.length * 2));
+            }
+        }
+
+        private void resize(int capacity) {
+            types = types == null ? new byte[capacity] : Arrays.copyOf(types, capacity);
+            primitives = primitives == null ? new long[capacity] : Arrays.copyOf(primitives, capacity);
+            strings = strings == null ? new String[capacity] : Arrays.copyOf(strings, capacity);
+            order = order == null ? new int[capacity] : Arrays.copyOf(order, capacity);
+        }
+
         public AttributesMap build() {
-            return new AttributesMap(builder.build());
+            if (size == 0) {
+                return schema != null ? EMPTY.withSchema(schema) : EMPTY;
+            }
+
+            if (schema != null) {
+                built = true;
+                return new AttributesMap(schema, types, primitives, strings, order, size);
+            }
+
+            final AttributesSchema schema = AttributesSchema.undeclared(names);
+            Preconditions.checkArgument(schema.size() == size, "duplicate attributes %s", names);
+            return new AttributesMap(
+                schema,
+                Arrays.copyOf(types, size),
+                Arrays.copyOf(primitives, size),
+                Arrays.copyOf(strings, size),
+                Arrays.copyOf(order, size),
+                size
+            );
         }
     }
+
+    // an empty map that reports the given schema, so that filtering it against the schema returns it
+    private AttributesMap withSchema(AttributesSchema schema) {
+        return new AttributesMap(schema, types, primitives, strings, order, 0);
+    }
 }
@@ -0,0 +1,146 @@
+package io.rtr.alchemy.identities;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A fixed set of attribute names, each assigned a slot, so that attribute maps built against the schema can store
+ * their values in arrays indexed by slot.  Attributes declared by identities and attributes read by filters are also
+ * given a global id, which filters resolve once when they are compiled, so that looking an attribute up by id is an
+ * array read rather than a hash lookup.  Schemas of maps built without one never assign ids, so that the ids stay
+ * bounded by the attributes the application declares rather than growing with every attribute name it is sent
+ */
+public final class AttributesSchema {
+    private static final ConcurrentMap<String, Integer> IDS = Maps.newConcurrentMap();
+    // the attribute name of every id, appended to before the id is put in IDS so that any id read has a name
+    private static final List<String> NAMES = Lists.newCopyOnWriteArrayList();
+    // the number of ids which have been put in IDS
+    private static volatile int assignedIds;
+    private static final int NO_SLOT = -1;
+    static final AttributesSchema EMPTY = new AttributesSchema(ImmutableSet.<String>of());
+
+    private final ImmutableSet<String> names;
+    private final ImmutableMap<String, Integer> slots;
+    private final String[] slotNames;
+    private final int[] slotsById;
+    // ids from this one on may have been assigned after the schema was built, and are looked up by name
+    private final int unknownIds;
+
+    AttributesSchema(Iterable<String> names) {
+        this(names, true);
+    }
+
+    private AttributesSchema(Iterable<String> names, boolean declared) {
+        // read before resolving the names, so that every id below it has already been put in IDS
+        final int knownIds = assignedIds;
+        this.names = ImmutableSet.copyOf(names);
+        slotNames = this.names.toArray(new String[this.names.size()]);
+
+        final ImmutableMap.Builder<String, Integer> slots = ImmutableMap.builder();
+        final int[] ids = new int[slotNames.length];
+        int maxId = NO_SLOT;
+
+        for (int slot = 0; slot < slotNames.length; slot++) {
+            slots.put(slotNames[slot], slot);
+            ids[slot] = declared ? idOf(slotNames[slot]) : existingIdOf(slotNames[slot]);
+            maxId = Math.max(maxId, ids[slot]);
+        }
+
+        this.slots = slots.build();
+        slotsById = new int[maxId + 1];
+        Arrays.fill(slotsById, NO_SLOT);
+
+        for (int slot = 0; slot < ids.length; slot++) {
+            if (ids[slot] != NO_SLOT) {
+                slotsById[ids[slot]] = slot;
+            }
+        }
+
+        unknownIds = declared ? Integer.MAX_VALUE : knownIds;
+    }
+
+    /**
+     * Creates the schema of a map built without one, which only resolves the ids already assigned to its names
+     */
+    static AttributesSchema undeclared(Iterable<String> names) {
+        return new AttributesSchema(names, false);
+    }
+
+    /**
+     * Returns the global id of an attribute name, assigning one if the name has not been seen before.  Only attributes
+     * declared by identities or read by filters should be given ids
+     */
+    public static int idOf(String name) {
+        final Integer id = IDS.get(name);
+        if (id != null) {
+            return id;
+        }
+
+        synchronized (IDS) {
+            final Integer existing = IDS.get(name);
+            if (existing != null) {
+                return existing;
+            }
+
+            final int candidate = NAMES.size();
+            NAMES.add(name);
+            IDS.put(name, candidate);
+            assignedIds = candidate + 1;
+            return candidate;
+        }
+    }
+
+    private static int existingIdOf(String name) {
+        final Integer id = IDS.get(name);
+        return id != null ? id : NO_SLOT;
+    }
+
+    /**
+     * The attribute names of this schema, in slot order
+     */
+    public ImmutableSet<String> getNames() {
+        return names;
+    }
+
+    public int size() {
+        return slotNames.length;
+    }
+
+    /**
+     * Returns the slot of an attribute name, or -1 if the name is not part of this schema
+     */
+    public int getSlot(Object name) {
+        final Integer slot = slots.get(name);
+        return slot != null ? slot : NO_SLOT;
+    }
+
+    /**
+     * Returns the slot of an attribute by its global id, or -1 if the attribute is not part of this schema
+     */
+    public int getSlotById(int id) {
+        if (id < 0) {
+            return NO_SLOT;
+        }
+
+        if (id < slotsById.length && slotsById[id] != NO_SLOT) {
+            return slotsById[id];
+        }
+
+        return id < unknownIds ? NO_SLOT : getSlot(NAMES.get(id));
+    }
+
+    public String getName(int slot) {
+        return slotNames[slot];
+    }
+
+    @Override
+    public String toString() {
+        return names.toString();
+    }
+}
@@ -0,0 +1,42 @@
+package io.rtr.alchemy.identities;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Holds what is computed from an identity while evaluating experiments for it, so that a request looking up several
+ * experiments for the same identity only computes the identity's attributes once, and only hashes it once for each
+ * distinct set of hash attributes.  Everything is computed when first needed.  Not thread-safe, a context is meant to
+ * be created once per request and used by that request
+ */
+public class EvaluationContext {
+    private final Identity identity;
+    private HashingContext hashingContext;
+
+    public EvaluationContext(Identity identity) {
+        this.identity = Preconditions.checkNotNull(identity, "identity cannot be null");
+    }
+
+    public Identity getIdentity() {
+        return identity;
+    }
+
+    /**
+     * Returns the identity's attributes, limited to those the identity supports
+     */
+    public AttributesMap getAttributes() {
+        return getHashingContext().getAttributes();
+    }
+
+    /**
+     * Returns the context which hashes the identity for each experiment
+     */
+    public HashingContext getHashingContext() {
+        if (hashingContext == null) {
+            final AttributesMap attributes = identity
+                                                .computeAttributes()
+                                                .filter(Identity.getAttributesSchema(identity.getClass()));
+            hashingContext = new HashingContext(identity, attributes);
+        }
+        return hashingContext;
+    }
+}
@@ -0,0 +1,74 @@
+package io.rtr.alchemy.identities;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Hashes an identity for a single request.  The identity is hashed once for each distinct set of hash attributes,
+ * and the seed of each experiment is then mixed into that hash, rather than hashing the identity's attributes again
+ * for every experiment.  Not thread-safe, a context is meant to be used by one request
+ */
+public class HashingContext {
+    private static final int INITIAL_CAPACITY = 2;
+    private static final long SEED_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private final Identity identity;
+    private final AttributesMap attributes;
+    private Set<?>[] hashAttributes = new Set<?>[INITIAL_CAPACITY];
+    private long[] hashes = new long[INITIAL_CAPACITY];
+    private int size;
+
+    public HashingContext(Identity identity, AttributesMap attributes) {
+        this.identity = identity;
+        this.attributes = attributes;
+    }
+
+    public Identity getIdentity() {
+        return identity;
+    }
+
+    public AttributesMap getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Returns the hash of the identity for the given seed and hash attributes
+     * @param seed a seed value to randomize the resulting hash from experiment to experiment for the same identity
+     * @param hashAttributes a set of attributes that should be used to compute the hash code
+     */
+    public long computeHash(int seed, Set<String> hashAttributes) {
+        return mix(getUnseededHash(hashAttributes), seed);
+    }
+
+    private long getUnseededHash(Set<String> hashAttributes) {
+        // experiments usually share the same few sets of hash attributes, so a linear search is fine
+        for (int i = 0; i < size; i++) {
+            if (this.hashAttributes[i] == hashAttributes || this.hashAttributes[i].equals(hashAttributes)) {
+                return hashes[i];
+            }
+        }
+
+        final long hash = identity.computeHash(0, hashAttributes, attributes);
+
+        if (size == hashes.length) {
+            this.hashAttributes = Arrays.copyOf(this.hashAttributes, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+
+        this.hashAttributes[size] = hashAttributes;
+        hashes[size++] = hash;
+        return hash;
+    }
+
+    /**
+     * Mixes a seed into a hash with the murmur3 finalizer, so that every bit of the seed affects every bit of the result
+     */
+    static long mix(long hash, int seed) {
+        long result = hash + seed * SEED_MULTIPLIER;
+        result ^= result >>> 33;
+        result *= 0xff51afd7ed558ccdL;
+        result ^= result >>> 33;
+        result *= 0xc4ceb9fe1a85ec53L;
+        result ^= result >>> 33;
+        return result;
+    }
+}
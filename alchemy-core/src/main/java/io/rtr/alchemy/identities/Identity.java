@@ -15,25 +15,25 @@ import java.util.concurrent.ExecutionException;
  */
 public abstract class Identity {
     protected static final Set<String> EMPTY = Collections.unmodifiableSet(Sets.<String>newHashSet());
-    private static final LoadingCache<Class<?>, Set<String>> ATTRIBUTES_CACHE =
+    private static final LoadingCache<Class<?>, AttributesSchema> SCHEMA_CACHE =
         CacheBuilder
             .newBuilder()
-            .build(new CacheLoader<Class<?>, Set<String>>() {
+            .build(new CacheLoader<Class<?>, AttributesSchema>() {
                 @Override
-                public Set<String> load(@Nonnull Class<?> clazz) throws Exception {
+                public AttributesSchema load(@Nonnull Class<?> clazz) throws Exception {
                     final Attributes annotation = clazz.getAnnotation(Attributes.class);
                     if (annotation == null) {
-                        return EMPTY;
+                        return AttributesSchema.EMPTY;
                     }
 
-                    final Set<String> result = Sets.newHashSet();
+                    final Set<String> result = Sets.newTreeSet();
                     Collections.addAll(result, annotation.value());
 
                     for (final Class<? extends Identity> identity : annotation.identities()) {
-                        result.addAll(ATTRIBUTES_CACHE.get(identity));
+                        result.addAll(SCHEMA_CACHE.get(identity).getNames());
                     }
 
-                    return result;
+                    return new AttributesSchema(result);
                 }
             });
 
@@ -44,18 +44,16 @@ public abstract class Identity {
      * @param attributes a map of attribute values
      */
     public long computeHash(int seed, Set<String> hashAttributes, AttributesMap attributes) {
-        final IdentityBuilder builder = IdentityBuilder.seed(seed);
-        final Iterable<String> names = hashAttributes.isEmpty() ? attributes.keySet() : hashAttributes;
+        // the builder is only used within this call, so the thread's builder can be reused to avoid allocating
+        final IdentityBuilder builder = IdentityBuilder.threadLocal(seed);
 
-        for (String name : names) {
-            final Class<?> type = attributes.getType(name);
-
-            if (type == String.class) {
-                builder.putString(attributes.getString(name));
-            } else if (type == Long.class) {
-                builder.putLong(attributes.getNumber(name));
-            } else if (type == Boolean.class) {
-                builder.putBoolean(attributes.getBoolean(name));
+        if (hashAttributes.isEmpty()) {
+            for (int i = 0; i < attributes.size(); i++) {
+                attributes.putValue(builder, attributes.slotAt(i));
+            }
+        } else {
+            for (String name : hashAttributes) {
+                attributes.putValue(builder, attributes.getSchema().getSlot(name));
             }
         }
 
@@ -85,8 +83,15 @@ public abstract class Identity {
      * Get a list of possible attribute values that can be returned by this identity
      */
     public static <T extends Identity> Set<String> getSupportedAttributes(Class<T> clazz) {
+        return getAttributesSchema(clazz).getNames();
+    }
+
+    /**
+     * Get the schema of the attributes that can be returned by this identity, which assigns each a slot
+     */
+    public static <T extends Identity> AttributesSchema getAttributesSchema(Class<T> clazz) {
         try {
-            return ATTRIBUTES_CACHE.get(clazz);
+            return SCHEMA_CACHE.get(clazz);
         } catch (final ExecutionException e) {
             throw new RuntimeException(e);
         }
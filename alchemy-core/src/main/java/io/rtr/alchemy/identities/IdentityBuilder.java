@@ -1,30 +1,58 @@
 package io.rtr.alchemy.identities;
 
-import com.google.common.hash.Hasher;
-import com.google.common.hash.Hashing;
-
-import java.nio.charset.Charset;
-
 /**
- * Used for building a unique identity
+ * Used for building a unique identity.  Computes the same 64 bit murmur3_128 hash as Guava's
+ * Hashing.murmur3_128(seed), with strings encoded as UTF-8, but hashes values as they are put into a fixed buffer
+ * rather than allocating, so that a builder may be reset and reused
  */
 public class IdentityBuilder {
-    private static final Charset CHARSET = Charset.forName("UTF-8");
-    private final Hasher hasher;
+    private static final int CHUNK_SIZE = 16;
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final ThreadLocal<IdentityBuilder> THREAD_BUILDER = new ThreadLocal<IdentityBuilder>() {
+        @Override
+        protected IdentityBuilder initialValue() {
+            return new IdentityBuilder(0);
+        }
+    };
+    private final byte[] buffer = new byte[CHUNK_SIZE];
+    private int buffered;
+    private long h1;
+    private long h2;
+    private int length;
 
     private IdentityBuilder(int seed) {
-        this.hasher = Hashing.murmur3_128(seed).newHasher();
+        reset(seed);
     }
 
     public static IdentityBuilder seed(int seed) {
         return new IdentityBuilder(seed);
     }
 
+    /**
+     * Returns a builder owned by the current thread, reset with the given seed.  The builder must not be used after
+     * another call to this method on the same thread, so it should not be held on to once its hash has been computed
+     */
+    public static IdentityBuilder threadLocal(int seed) {
+        return THREAD_BUILDER.get().reset(seed);
+    }
+
+    /**
+     * Discards everything put into this builder, so it may be reused to build another identity
+     */
+    public IdentityBuilder reset(int seed) {
+        h1 = seed;
+        h2 = seed;
+        buffered = 0;
+        length = 0;
+        return this;
+    }
+
     public IdentityBuilder putByte(Byte value) {
         if (value == null) {
             putNull();
         } else {
-            hasher.putByte(value);
+            write(value);
         }
         return this;
     }
@@ -33,7 +61,7 @@ public class IdentityBuilder {
         if (value == null) {
             putNull();
         } else {
-            hasher.putBytes(value);
+            write(value, 0, value.length);
         }
         return this;
     }
@@ -42,7 +70,7 @@ public class IdentityBuilder {
         if (value == null) {
             putNull();
         } else {
-            hasher.putBytes(value, start, length);
+            write(value, start, length);
         }
         return this;
     }
@@ -51,7 +79,7 @@ public class IdentityBuilder {
         if (value == null) {
             putNull();
         } else {
-            hasher.putShort(value);
+            writeLittleEndian(value, 2);
         }
         return this;
     }
@@ -60,7 +88,7 @@ public class IdentityBuilder {
         if (value == null) {
             putNull();
         } else {
-            hasher.putInt(value);
+            writeLittleEndian(value, 4);
         }
         return this;
     }
@@ -69,16 +97,21 @@ public class IdentityBuilder {
         if (value == null) {
             putNull();
         } else {
-            hasher.putLong(value);
+            writeLittleEndian(value, 8);
         }
         return this;
     }
 
+    public IdentityBuilder putLong(long value) {
+        writeLittleEndian(value, 8);
+        return this;
+    }
+
     public IdentityBuilder putFloat(Float value) {
         if (value == null) {
             putNull();
         } else {
-            hasher.putFloat(value);
+            writeLittleEndian(Float.floatToRawIntBits(value), 4);
         }
         return this;
     }
@@ -87,7 +120,7 @@ public class IdentityBuilder {
         if (value == null) {
             putNull();
         } else {
-            hasher.putDouble(value);
+            writeLittleEndian(Double.doubleToRawLongBits(value), 8);
         }
         return this;
     }
@@ -96,16 +129,21 @@ public class IdentityBuilder {
         if (value == null) {
             putNull();
         } else {
-            hasher.putBoolean(value);
+            write((byte) (value ? 1 : 0));
         }
         return this;
     }
 
+    public IdentityBuilder putBoolean(boolean value) {
+        write((byte) (value ? 1 : 0));
+        return this;
+    }
+
     public IdentityBuilder putChar(Character value) {
         if (value == null) {
             putNull();
         } else {
-            hasher.putChar(value);
+            writeLittleEndian(value, 2);
         }
         return this;
     }
@@ -114,17 +152,143 @@ public class IdentityBuilder {
         if (value == null) {
             putNull();
         } else {
-            hasher.putString(value, CHARSET);
+            writeUtf8(value);
         }
         return this;
     }
 
     public IdentityBuilder putNull() {
-        hasher.putLong(0);
+        writeLittleEndian(0, 8);
         return this;
     }
 
+    /**
+     * Returns the hash of everything put into the builder so far.  Does not change the builder, so more values may
+     * still be put into it
+     */
     public long hash() {
-        return hasher.hash().asLong();
+        long h1 = this.h1;
+        long h2 = this.h2;
+
+        if (buffered > 0) {
+            long k1 = 0;
+            long k2 = 0;
+            for (int i = Math.min(buffered, 8) - 1; i >= 0; i--) {
+                k1 = (k1 << 8) | (buffer[i] & 0xFF);
+            }
+            for (int i = buffered - 1; i >= 8; i--) {
+                k2 = (k2 << 8) | (buffer[i] & 0xFF);
+            }
+            h1 ^= mixK1(k1);
+            h2 ^= mixK2(k2);
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+
+        // the first 8 bytes of the 128 bit hash, as HashCode.asLong() would return them
+        return h1;
+    }
+
+    private void write(byte value) {
+        buffer[buffered++] = value;
+        length++;
+
+        if (buffered == CHUNK_SIZE) {
+            processChunk();
+        }
+    }
+
+    private void write(byte[] value, int start, int count) {
+        for (int i = start; i < start + count; i++) {
+            write(value[i]);
+        }
+    }
+
+    private void writeLittleEndian(long value, int bytes) {
+        for (int i = 0; i < bytes; i++) {
+            write((byte) (value >>> (i * 8)));
+        }
+    }
+
+    // encodes the same bytes as String.getBytes(UTF_8), including replacing unpaired surrogates with '?'
+    private void writeUtf8(CharSequence value) {
+        final int count = value.length();
+
+        for (int i = 0; i < count; i++) {
+            final char c = value.charAt(i);
+
+            if (c < 0x80) {
+                write((byte) c);
+            } else if (c < 0x800) {
+                write((byte) (0xC0 | (c >>> 6)));
+                write((byte) (0x80 | (c & 0x3F)));
+            } else if (!Character.isSurrogate(c)) {
+                write((byte) (0xE0 | (c >>> 12)));
+                write((byte) (0x80 | ((c >>> 6) & 0x3F)));
+                write((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                write((byte) (0xF0 | (codePoint >>> 18)));
+                write((byte) (0x80 | ((codePoint >>> 12) & 0x3F)));
+                write((byte) (0x80 | ((codePoint >>> 6) & 0x3F)));
+                write((byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                write((byte) '?');
+            }
+        }
+    }
+
+    private void processChunk() {
+        final long k1 = readLittleEndian(0);
+        final long k2 = readLittleEndian(8);
+
+        h1 ^= mixK1(k1);
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        h1 = h1 * 5 + 0x52dce729;
+
+        h2 ^= mixK2(k2);
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        h2 = h2 * 5 + 0x38495ab5;
+
+        buffered = 0;
+    }
+
+    private long readLittleEndian(int offset) {
+        long result = 0;
+        for (int i = offset + 7; i >= offset; i--) {
+            result = (result << 8) | (buffer[i] & 0xFF);
+        }
+        return result;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        return k1;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        return k2;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
     }
 }
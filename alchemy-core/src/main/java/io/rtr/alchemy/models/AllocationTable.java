@@ -0,0 +1,139 @@
+package io.rtr.alchemy.models;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable lookup table from bin to treatment, built from allocations sorted by offset.  Looking up a bin does not
+ * allocate.  Small numbers of bins are looked up with a single array read, larger numbers of bins with a binary search
+ * over the allocated ranges, so that memory use depends on the number of allocations rather than the number of bins
+ */
+abstract class AllocationTable {
+    // the largest number of bins for which a table holding every bin is built
+    static final int MAX_ARRAY_BINS = 4096;
+    private final int size;
+
+    private AllocationTable(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Builds a table from allocations, which must be sorted by offset
+     */
+    static AllocationTable of(List<Allocation> sortedAllocations, int numBins) {
+        int size = 0;
+        int end = 0;
+
+        for (final Allocation allocation : sortedAllocations) {
+            Preconditions.checkState(
+                allocation.getOffset() >= 0 && allocation.getOffset() + allocation.getSize() <= numBins,
+                "allocation exceeds %s bins",
+                numBins
+            );
+            Preconditions.checkState(allocation.getOffset() >= end, "overlapping allocations");
+            end = allocation.getOffset() + allocation.getSize();
+            size += allocation.getSize();
+        }
+
+        return
+            numBins <= MAX_ARRAY_BINS ?
+                new ArrayTable(sortedAllocations, numBins, size) :
+                new RangeTable(sortedAllocations, size);
+    }
+
+    /**
+     * Returns the treatment assigned to a bin, or null if the bin is unallocated
+     */
+    abstract Treatment getTreatment(int bin);
+
+    /**
+     * Returns the number of allocated bins
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * Holds the index of the treatment of every bin
+     */
+    private static class ArrayTable extends AllocationTable {
+        private static final short UNALLOCATED = -1;
+        private final short[] bins;
+        private final Treatment[] treatments;
+
+        private ArrayTable(List<Allocation> sortedAllocations, int numBins, int size) {
+            super(size);
+            final Treatment[] treatments = new Treatment[sortedAllocations.size()];
+            int numTreatments = 0;
+
+            bins = new short[numBins];
+            Arrays.fill(bins, UNALLOCATED);
+
+            for (final Allocation allocation : sortedAllocations) {
+                // there are few treatments per experiment, so a linear search is cheaper than hashing
+                int treatment = 0;
+                while (treatment < numTreatments && !treatments[treatment].equals(allocation.getTreatment())) {
+                    treatment++;
+                }
+
+                if (treatment == numTreatments) {
+                    treatments[numTreatments++] = allocation.getTreatment();
+                }
+
+                Arrays.fill(bins, allocation.getOffset(), allocation.getOffset() + allocation.getSize(), (short) treatment);
+            }
+
+            this.treatments = Arrays.copyOf(treatments, numTreatments);
+        }
+
+        @Override
+        Treatment getTreatment(int bin) {
+            final short treatment = bins[bin];
+            return treatment == UNALLOCATED ? null : treatments[treatment];
+        }
+    }
+
+    /**
+     * Holds the start and end of every allocated range of bins
+     */
+    private static class RangeTable extends AllocationTable {
+        private final int[] starts;
+        private final int[] ends;
+        private final Treatment[] treatments;
+
+        private RangeTable(List<Allocation> sortedAllocations, int size) {
+            super(size);
+            final int numRanges = sortedAllocations.size();
+            starts = new int[numRanges];
+            ends = new int[numRanges];
+            treatments = new Treatment[numRanges];
+
+            for (int i = 0; i < numRanges; i++) {
+                final Allocation allocation = sortedAllocations.get(i);
+                starts[i] = allocation.getOffset();
+                ends[i] = allocation.getOffset() + allocation.getSize();
+                treatments[i] = allocation.getTreatment();
+            }
+        }
+
+        @Override
+        Treatment getTreatment(int bin) {
+            // find the last range starting at or before the bin
+            int low = 0;
+            int high = starts.length - 1;
+
+            while (low <= high) {
+                final int middle = (low + high) >>> 1;
+                if (starts[middle] <= bin) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+
+            return high >= 0 && bin < ends[high] ? treatments[high] : null;
+        }
+    }
+}
@@ -3,19 +3,19 @@ package io.rtr.alchemy.models;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 
 /**
  * Represents allocations of treatments for an experiment
  */
 public class Allocations {
+    /**
+     * The default number of bins, which identities were always assigned to before experiments could choose their own
+     */
     public static final int NUM_BINS = 100;
     private static final Comparator<Allocation> COMPARATOR = new Comparator<Allocation>() {
         @Override
@@ -24,17 +24,22 @@ public class Allocations {
         }
     };
 
-    private Byte[] allocationMap;
     private List<Allocation> allocations;
-    private Treatment[] treatmentsMap;
-    private int size;
+    private AllocationTable table;
+    private int numBins;
 
     public Allocations() {
         this(Lists.<Allocation>newArrayList());
     }
 
     public Allocations(Iterable<Allocation> allocations) {
+        this(allocations, NUM_BINS);
+    }
+
+    public Allocations(Iterable<Allocation> allocations, int numBins) {
+        Preconditions.checkArgument(numBins > 0, "number of bins must be positive");
         this.allocations = Lists.newArrayList(allocations);
+        this.numBins = numBins;
         sortAllocations();
         rebuildAllocationTables();
     }
@@ -44,31 +49,7 @@ public class Allocations {
     }
 
     private void rebuildAllocationTables() {
-        final Map<Treatment, Integer> treatments = Maps.newHashMap();
-        int size = 0;
-        allocationMap = new Byte[NUM_BINS];
-
-        for (Allocation allocation : allocations) {
-            Integer treatment = treatments.get(allocation.getTreatment());
-            if (treatment == null) {
-                treatment = treatments.size();
-                treatments.put(allocation.getTreatment(), treatment);
-            }
-
-            for (int i=allocation.getOffset(); i<allocation.getOffset() + allocation.getSize(); i++, size++) {
-                Preconditions.checkState(
-                    allocationMap[i] == null,
-                    "overlapping allocations"
-                );
-                allocationMap[i] = treatment.byteValue();
-            }
-        }
-
-        this.size = size;
-        this.treatmentsMap = new Treatment[treatments.size()];
-        for (Entry<Treatment, Integer> entry : treatments.entrySet()) {
-            this.treatmentsMap[entry.getValue()] = entry.getKey();
-        }
+        table = AllocationTable.of(allocations, numBins);
     }
 
     /**
@@ -76,14 +57,7 @@ public class Allocations {
      * @param bin The bin
      */
     public Treatment getTreatment(int bin) {
-        final Byte treatmentIndex = allocationMap[bin];
-
-        if (treatmentIndex == null) {
-            // unallocated
-            return null;
-        }
-
-        return treatmentsMap[treatmentIndex];
+        return table.getTreatment(bin);
     }
 
     private void mergeAdjacentAllocations() {
@@ -234,11 +208,29 @@ public class Allocations {
     }
 
     public int getSize() {
-        return size;
+        return table.getSize();
     }
 
     public int getUnallocatedSize() {
-        return NUM_BINS - size;
+        return numBins - getSize();
+    }
+
+    public int getNumBins() {
+        return numBins;
+    }
+
+    /**
+     * Changes the number of bins, which is only allowed while nothing is allocated
+     * @param numBins The number of bins
+     */
+    public void setNumBins(int numBins) {
+        Preconditions.checkArgument(numBins > 0, "number of bins must be positive");
+        Preconditions.checkState(
+            numBins == this.numBins || allocations.isEmpty(),
+            "cannot change the number of bins while treatments are allocated"
+        );
+        this.numBins = numBins;
+        rebuildAllocationTables();
     }
 
     public void clear() {
@@ -0,0 +1,256 @@
+package io.rtr.alchemy.models;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multiset;
+import com.google.common.primitives.Longs;
+import io.rtr.alchemy.filtering.FilterExpression;
+import io.rtr.alchemy.filtering.FilterSet;
+import io.rtr.alchemy.identities.AttributesMap;
+import io.rtr.alchemy.identities.AttributesSchema;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * An immutable snapshot of the active experiments, laid out in arrays so that evaluating every active experiment for
+ * a request does not allocate or copy anything.  Caches publish a new plan whenever their active experiments change.
+ *
+ * Experiments whose filters require an attribute to equal one of a few values are indexed by that attribute's value,
+ * so that a request only evaluates the experiments indexed under its own values, along with those that could not be
+ * indexed.  Identical comparisons in the filters of every experiment and override are shared, so that each is evaluated
+ * at most once per request
+ */
+public final class EvaluationPlan {
+    private static final EvaluationPlan EMPTY = new EvaluationPlan(ImmutableMap.<String, Experiment>of());
+    private final Entry[] entries;
+    private final ImmutableList<Experiment> experiments;
+    private final ImmutableMap<String, Entry> entriesByName;
+    private final Entry[] unindexedEntries;
+    private final AttributeIndex[] indexes;
+    private final FilterSet filters;
+
+    private EvaluationPlan(Map<String, Experiment> experiments) {
+        final ImmutableMap.Builder<String, Entry> entriesByName = ImmutableMap.builder();
+        entries = new Entry[experiments.size()];
+
+        final List<FilterExpression> filters = Lists.newArrayList();
+        int count = 0;
+        for (final Map.Entry<String, Experiment> experiment : experiments.entrySet()) {
+            entries[count] = new Entry(experiment.getValue(), count, filters);
+            entriesByName.put(experiment.getKey(), entries[count++]);
+        }
+
+        this.entriesByName = entriesByName.build();
+        this.experiments = ImmutableList.copyOf(experiments.values());
+        this.filters = FilterSet.of(filters);
+
+        // attributes required by more filters are preferred, so that requests look up as few attributes as possible
+        final Multiset<String> attributeCounts = HashMultiset.create();
+        for (final Entry entry : entries) {
+            attributeCounts.addAll(entry.requiredValues.keySet());
+        }
+
+        final List<Entry> unindexedEntries = Lists.newArrayList();
+        final Map<String, ListMultimap<Object, Entry>> indexedEntries = Maps.newLinkedHashMap();
+
+        for (final Entry entry : entries) {
+            String attribute = null;
+            for (final String name : entry.requiredValues.keySet()) {
+                if (attribute == null || attributeCounts.count(name) > attributeCounts.count(attribute)) {
+                    attribute = name;
+                }
+            }
+
+            if (attribute == null) {
+                unindexedEntries.add(entry);
+                continue;
+            }
+
+            ListMultimap<Object, Entry> valueEntries = indexedEntries.get(attribute);
+            if (valueEntries == null) {
+                valueEntries = ArrayListMultimap.create();
+                indexedEntries.put(attribute, valueEntries);
+            }
+
+            for (final Object value : entry.requiredValues.get(attribute)) {
+                valueEntries.put(value, entry);
+            }
+        }
+
+        this.unindexedEntries = unindexedEntries.toArray(new Entry[unindexedEntries.size()]);
+        indexes = new AttributeIndex[indexedEntries.size()];
+
+        int index = 0;
+        for (final Map.Entry<String, ListMultimap<Object, Entry>> attributeEntries : indexedEntries.entrySet()) {
+            indexes[index++] = new AttributeIndex(attributeEntries.getKey(), attributeEntries.getValue());
+        }
+    }
+
+    /**
+     * Builds a plan for the given active experiments, by name
+     */
+    public static EvaluationPlan of(Map<String, Experiment> experiments) {
+        return new EvaluationPlan(ImmutableMap.copyOf(experiments));
+    }
+
+    public static EvaluationPlan empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the number of experiments in the plan
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * Returns the experiments of the plan, in the order of their entries' indexes
+     */
+    public List<Experiment> getExperiments() {
+        return experiments;
+    }
+
+    /**
+     * Returns an experiment of the plan by name, or null if it is not part of the plan
+     */
+    public Experiment getExperiment(String experimentName) {
+        final Entry entry = entriesByName.get(experimentName);
+        return entry != null ? entry.experiment : null;
+    }
+
+    Entry[] getEntries() {
+        return entries;
+    }
+
+    Entry getEntry(String experimentName) {
+        return entriesByName.get(experimentName);
+    }
+
+    /**
+     * The entries which must be evaluated for every request
+     */
+    Entry[] getUnindexedEntries() {
+        return unindexedEntries;
+    }
+
+    AttributeIndex[] getIndexes() {
+        return indexes;
+    }
+
+    /**
+     * The filters of every experiment and override, by the indexes held by the entries
+     */
+    FilterSet getFilters() {
+        return filters;
+    }
+
+    /**
+     * Entries indexed by the value of an attribute their filters require.  Entries are looked up by the attribute's
+     * value without boxing it, string values in a hash map, number values by binary search of a sorted array, and
+     * boolean values by an array of the entries of false and true
+     */
+    static final class AttributeIndex {
+        private static final Entry[] NO_ENTRIES = new Entry[0];
+        private final String attribute;
+        private final int attributeId;
+        private final ImmutableMap<String, Entry[]> stringEntries;
+        private final long[] numbers;
+        // the entries of each number, at its position in numbers
+        private final Entry[][] numberEntries;
+        // the entries of false and true, at 0 and 1
+        private final Entry[][] booleanEntries;
+
+        private AttributeIndex(String attribute, ListMultimap<Object, Entry> entries) {
+            final ImmutableMap.Builder<String, Entry[]> stringEntries = ImmutableMap.builder();
+            final SortedMap<Long, Entry[]> numberEntries = Maps.newTreeMap();
+            booleanEntries = new Entry[2][];
+
+            for (final Object value : entries.keySet()) {
+                final List<Entry> valueEntries = entries.get(value);
+                final Entry[] array = valueEntries.toArray(new Entry[valueEntries.size()]);
+                if (value instanceof String) {
+                    stringEntries.put((String) value, array);
+                } else if (value instanceof Long) {
+                    numberEntries.put((Long) value, array);
+                } else if (value instanceof Boolean) {
+                    booleanEntries[(Boolean) value ? 1 : 0] = array;
+                }
+            }
+
+            this.attribute = attribute;
+            this.attributeId = AttributesSchema.idOf(attribute);
+            this.stringEntries = stringEntries.build();
+            numbers = Longs.toArray(numberEntries.keySet());
+            this.numberEntries = numberEntries.values().toArray(new Entry[numberEntries.size()][]);
+        }
+
+        String getAttribute() {
+            return attribute;
+        }
+
+        /**
+         * Returns the entries whose filters may match the given attributes' value of this attribute
+         */
+        Entry[] getEntries(AttributesMap attributes) {
+            final Class<?> type = attributes.getTypeById(attributeId);
+            Entry[] result = null;
+
+            if (type == String.class) {
+                result = stringEntries.get(attributes.getStringById(attributeId));
+            } else if (type == Long.class) {
+                final int index = Arrays.binarySearch(numbers, attributes.getNumberById(attributeId));
+                result = index >= 0 ? numberEntries[index] : null;
+            } else if (type == Boolean.class) {
+                result = booleanEntries[attributes.getBooleanById(attributeId) ? 1 : 0];
+            }
+
+            return result != null ? result : NO_ENTRIES;
+        }
+    }
+
+    /**
+     * The filter and overrides of an experiment, as they were when the plan was built
+     */
+    static final class Entry {
+        final Experiment experiment;
+        // the position of the entry in the plan
+        final int index;
+        final FilterExpression filter;
+        final FilterExpression[] overrideFilters;
+        final Treatment[] overrideTreatments;
+        final Map<String, Set<Object>> requiredValues;
+        // the indexes of the filter and override filters in the plan's filter set
+        final int filterIndex;
+        final int[] overrideFilterIndexes;
+
+        private Entry(Experiment experiment, int index, List<FilterExpression> filters) {
+            final List<TreatmentOverride> overrides = experiment.getOverrides();
+            this.experiment = experiment;
+            this.index = index;
+            filter = experiment.getFilter();
+            requiredValues = filter.getRequiredValues();
+            filterIndex = filters.size();
+            filters.add(filter);
+            overrideFilters = new FilterExpression[overrides.size()];
+            overrideTreatments = new Treatment[overrides.size()];
+            overrideFilterIndexes = new int[overrides.size()];
+
+            for (int i = 0; i < overrideFilters.length; i++) {
+                overrideFilters[i] = overrides.get(i).getFilter();
+                overrideTreatments[i] = overrides.get(i).getTreatment();
+                overrideFilterIndexes[i] = filters.size();
+                filters.add(overrideFilters[i]);
+            }
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import io.rtr.alchemy.filtering.FilterExpression;
 import io.rtr.alchemy.identities.AttributesMap;
+import io.rtr.alchemy.identities.HashingContext;
 import io.rtr.alchemy.identities.Identity;
 import io.rtr.alchemy.identities.IdentityBuilder;
 import org.apache.commons.math3.util.FastMath;
@@ -30,6 +31,17 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 
 public class Experiment {
+    /**
+     * Identities are hashed with murmur3 seeded with the experiment's seed, separately for every experiment
+     */
+    public static final int HASH_VERSION_SEEDED = 1;
+
+    /**
+     * Identities are hashed once per request for all experiments with the same hash attributes, and the experiment's
+     * seed is mixed into that hash
+     */
+    public static final int HASH_VERSION_MIXED = 2;
+
     private static final Set<String> EMPTY_SET = Sets.newLinkedHashSet();
     private static final Function<TreatmentOverride, String> TREATMENT_INDEXER =
         new Function<TreatmentOverride, String>() {
@@ -46,6 +58,7 @@ public class Experiment {
     private final Map<String, Treatment> treatments;
     private final Map<String, TreatmentOverride> overrides;
     private int seed;
+    private int hashVersion;
     private String description;
     private FilterExpression filter;
     private Set<String> hashAttributes;
@@ -69,7 +82,9 @@ public class Experiment {
                        DateTime deactivated,
                        Map<String, Treatment> treatments,
                        Iterable<TreatmentOverride> overrides,
-                       Iterable<Allocation> allocations) {
+                       Iterable<Allocation> allocations,
+                       int bins,
+                       int hashVersion) {
         this.owner = owner;
         this.name = name;
         this.description = description;
@@ -82,8 +97,9 @@ public class Experiment {
         this.deactivated = deactivated;
         this.treatments = new ConcurrentHashMap<>(treatments);
         this.overrides = new ConcurrentHashMap<>(Maps.uniqueIndex(overrides, TREATMENT_INDEXER));
-        this.allocations = new Allocations(allocations);
+        this.allocations = new Allocations(allocations, bins);
         this.seed = seed;
+        this.hashVersion = checkHashVersion(hashVersion);
     }
 
     // used when creating a new experiment
@@ -97,6 +113,7 @@ public class Experiment {
         this.treatments = Maps.newConcurrentMap();
         this.overrides = Maps.newConcurrentMap();
         this.seed = (int) IdentityBuilder.seed(0).putString(name).hash();
+        this.hashVersion = HASH_VERSION_SEEDED;
     }
 
     public static Experiment copyOf(Experiment experiment) {
@@ -118,7 +135,7 @@ public class Experiment {
             allocations.add(new Allocation(treatment, allocation.getOffset(), allocation.getSize()));
         }
 
-        this.allocations = new Allocations(allocations);
+        this.allocations = new Allocations(allocations, toCopy.getBins());
 
         this.overrides = Maps.newConcurrentMap();
         for (final TreatmentOverride override : toCopy.getOverrides()) {
@@ -128,6 +145,7 @@ public class Experiment {
         }
 
         this.seed = toCopy.seed;
+        this.hashVersion = toCopy.hashVersion;
         this.description = toCopy.description;
         this.filter = toCopy.filter;
         this.hashAttributes = Sets.newLinkedHashSet(toCopy.getHashAttributes());
@@ -194,6 +212,42 @@ public class Experiment {
         return seed;
     }
 
+    /**
+     * Sets the number of bins identities are assigned to, which determines the smallest fraction of identities that
+     * can be allocated to a treatment.  Can only be changed while nothing is allocated.  WARNING: Changing this value
+     * will change what users are assigned to what treatments
+     */
+    public Experiment setBins(int bins) {
+        allocations.setNumBins(bins);
+        return this;
+    }
+
+    public int getBins() {
+        return allocations.getNumBins();
+    }
+
+    private static int checkHashVersion(int hashVersion) {
+        Preconditions.checkArgument(
+            hashVersion == HASH_VERSION_SEEDED || hashVersion == HASH_VERSION_MIXED,
+            "unsupported hash version %s",
+            hashVersion
+        );
+        return hashVersion;
+    }
+
+    /**
+     * Sets how identities are hashed, either HASH_VERSION_SEEDED or HASH_VERSION_MIXED.  WARNING: Changing this value
+     * will change what users are assigned to what treatments
+     */
+    public Experiment setHashVersion(int hashVersion) {
+        this.hashVersion = checkHashVersion(hashVersion);
+        return this;
+    }
+
+    public int getHashVersion() {
+        return hashVersion;
+    }
+
     public boolean isActive() {
         return active;
     }
@@ -371,7 +425,7 @@ public class Experiment {
         }
 
         removeOverrides(name);
-        allocations.deallocate(treatment, Allocations.NUM_BINS);
+        allocations.deallocate(treatment, allocations.getNumBins());
         treatments.remove(name);
 
         return this;
@@ -450,8 +504,30 @@ public class Experiment {
         return this;
     }
 
-    private int identityToBin(Identity identity, AttributesMap attributes) {
-        return (int) (FastMath.abs(identity.computeHash(seed, hashAttributes ,attributes)) % Allocations.NUM_BINS);
+    private int identityToBin(HashingContext context) {
+        final long hash =
+            hashVersion == HASH_VERSION_MIXED ?
+                context.computeHash(seed, hashAttributes) :
+                context.getIdentity().computeHash(seed, hashAttributes, context.getAttributes());
+        final int bins = allocations.getNumBins();
+
+        if (bins == Allocations.NUM_BINS) {
+            // experiments using the default number of bins keep the assignments they have always had
+            return (int) (FastMath.abs(hash) % Allocations.NUM_BINS);
+        }
+
+        return hashToBin(hash, bins);
+    }
+
+    /**
+     * Maps a hash to a bin by taking the high bits of the hash, as an unsigned value, multiplied by the number of bins.
+     * Unlike a modulo this does not favor lower bins when the number of bins does not evenly divide the range of hashes
+     */
+    static int hashToBin(long hash, int bins) {
+        // the high 64 bits of the 96 bit product, computed from 32 bit halves so that nothing overflows
+        final long high = (hash >>> 32) * bins;
+        final long low = (hash & 0xFFFFFFFFL) * bins;
+        return (int) ((high + (low >>> 32)) >>> 32);
     }
 
     /**
@@ -460,7 +536,17 @@ public class Experiment {
      * @return the treatment assigned to given identity
      */
     public Treatment getTreatment(Identity identity, AttributesMap attributes) {
-        return allocations.getTreatment(identityToBin(identity, attributes));
+        return getTreatment(new HashingContext(identity, attributes));
+    }
+
+    /**
+     * Returns treatment for an identity, sharing hashes of the identity with other experiments evaluated in the same
+     * request
+     * @param context The hashing context of the request
+     * @return the treatment assigned to the context's identity
+     */
+    public Treatment getTreatment(HashingContext context) {
+        return allocations.getTreatment(identityToBin(context));
     }
 
     @Override
@@ -494,6 +580,8 @@ public class Experiment {
                 .add("activated", activated)
                 .add("deactivated", deactivated)
                 .add("seed", seed)
+                .add("bins", getBins())
+                .add("hashVersion", hashVersion)
                 .toString();
     }
 
@@ -516,6 +604,8 @@ public class Experiment {
         private final Experiments owner;
         private final String name;
         private int seed;
+        private int bins = Allocations.NUM_BINS;
+        private int hashVersion = HASH_VERSION_SEEDED;
         private String description;
         private FilterExpression filter;
         private Set<String> hashAttributes;
@@ -586,6 +676,16 @@ public class Experiment {
             return this;
         }
 
+        public Builder bins(int bins) {
+            this.bins = bins;
+            return this;
+        }
+
+        public Builder hashVersion(int hashVersion) {
+            this.hashVersion = hashVersion;
+            return this;
+        }
+
         private Treatment getTreatment(String name) {
             final Treatment treatment = treatments.get(name);
             Preconditions.checkState(treatment != null, "treatment with name %s must be defined first", name);
@@ -622,7 +722,9 @@ public class Experiment {
                 deactivated,
                 treatments,
                 overrides,
-                allocations
+                allocations,
+                bins,
+                hashVersion
             );
         }
     }
@@ -1,32 +1,54 @@
 package io.rtr.alchemy.models;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
+import com.google.common.math.IntMath;
 import io.rtr.alchemy.caching.BasicCacheStrategy;
 import io.rtr.alchemy.caching.CacheStrategy;
 import io.rtr.alchemy.caching.CachingContext;
+import io.rtr.alchemy.caching.ScheduledCacheStrategy;
+import io.rtr.alchemy.db.EvaluationPlanProvider;
 import io.rtr.alchemy.db.ExperimentsCache;
 import io.rtr.alchemy.db.ExperimentsStoreProvider;
 import io.rtr.alchemy.db.ExperimentsStore;
 import io.rtr.alchemy.db.Filter;
+import io.rtr.alchemy.filtering.FilterExpression;
+import io.rtr.alchemy.filtering.FilterSet;
 import io.rtr.alchemy.identities.AttributesMap;
+import io.rtr.alchemy.identities.EvaluationContext;
+import io.rtr.alchemy.identities.HashingContext;
 import io.rtr.alchemy.identities.Identity;
 import io.rtr.alchemy.caching.CacheStrategyIterable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * The main class for accessing experiments
  */
 public class Experiments implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(Experiments.class);
+    // the number of identities evaluated by each task of a batch split across a pool
+    private static final int BATCH_SIZE = 256;
     private final ExperimentsStore store;
     private final ExperimentsCache cache;
     private final CacheStrategy strategy;
     private final CachingContext context;
+    private final Set<String> supportedAttributes;
+    // the plan last built for a cache which does not publish one, and the active experiments it was built from
+    private volatile BuiltPlan builtPlan;
 
     public static Builder using(ExperimentsStoreProvider provider) {
         return new Builder(provider);
@@ -34,42 +56,130 @@ public class Experiments implements Closeable {
 
     private Experiments(ExperimentsStoreProvider provider,
                         CacheStrategy strategy,
-                        ExecutorService executorService) {
+                        ExecutorService executorService,
+                        Set<String> supportedAttributes) {
         store = provider.getStore();
         cache = provider.getCache();
         Preconditions.checkNotNull(store, "store cannot be null");
         Preconditions.checkNotNull(cache, "cache cannot be null");
         this.strategy = strategy != null ? strategy : new BasicCacheStrategy();
-        this.context = new CachingContext(cache, new Experiment.BuilderFactory(this), executorService);
-        cache.invalidateAll(new Experiment.BuilderFactory(this));
+        this.supportedAttributes = supportedAttributes;
+        // the cache reloads everything when the factory it is given changes, so the initial load shares the context's
+        final Experiment.BuilderFactory builderFactory = new Experiment.BuilderFactory(this);
+        this.context = new CachingContext(cache, builderFactory, executorService);
+        cache.invalidateAll(builderFactory);
+
+        if (this.strategy instanceof ScheduledCacheStrategy) {
+            ((ScheduledCacheStrategy) this.strategy).onStart(context);
+        }
+    }
+
+    // filters are evaluated through the plan's filter set when there is an evaluation of it, so that leaves shared
+    // between filters are only evaluated once per request
+    private boolean matches(FilterExpression filter,
+                            int filterIndex,
+                            AttributesMap attributes,
+                            FilterSet.Evaluation evaluation) {
+        return evaluation != null ? evaluation.matches(filterIndex) : filter.evaluate(attributes);
     }
 
-    private Treatment getTreatmentWithOverrides(Experiment experiment, Identity identity, AttributesMap attributes) {
-        for (TreatmentOverride override : experiment.getOverrides()) {
-            if (override.getFilter().evaluate(attributes)) {
+    private Treatment getTreatmentWithOverrides(EvaluationPlan.Entry entry,
+                                                HashingContext context,
+                                                FilterSet.Evaluation evaluation) {
+        for (int i = 0; i < entry.overrideFilters.length; i++) {
+            if (matches(entry.overrideFilters[i], entry.overrideFilterIndexes[i], context.getAttributes(), evaluation)) {
+                return entry.overrideTreatments[i];
+            }
+        }
+
+        return entry.experiment.getTreatment(context);
+    }
+
+    private Treatment getTreatmentWithOverrides(Experiment experiment, HashingContext context) {
+        for (final TreatmentOverride override : experiment.getOverrides()) {
+            if (override.getFilter().evaluate(context.getAttributes())) {
                 return override.getTreatment();
             }
         }
 
-        return experiment.getTreatment(identity, attributes);
+        return experiment.getTreatment(context);
+    }
+
+    // caches which do not publish a plan have one built from their active experiments, which is rebuilt only when the
+    // cache returns a different map of them
+    private EvaluationPlan readEvaluationPlan() {
+        if (cache instanceof EvaluationPlanProvider) {
+            return ((EvaluationPlanProvider) cache).getEvaluationPlan();
+        }
+
+        final Map<String, Experiment> experiments = cache.getActiveExperiments();
+        final BuiltPlan built = builtPlan;
+        if (built != null && built.experiments == experiments) {
+            return built.plan;
+        }
+
+        final EvaluationPlan plan = EvaluationPlan.of(experiments);
+        builtPlan = new BuiltPlan(experiments, plan);
+        return plan;
     }
 
     /**
-     * Returns the current active treatment for an experiment name and identity, taking overrides into account
+     * A plan built by Experiments, with the map of active experiments it was built from
      */
-    public Treatment getActiveTreatment(String experimentName, Identity identity) {
-        strategy.onCacheRead(experimentName, context);
+    private static final class BuiltPlan {
+        private final Map<String, Experiment> experiments;
+        private final EvaluationPlan plan;
+
+        private BuiltPlan(Map<String, Experiment> experiments, EvaluationPlan plan) {
+            this.experiments = experiments;
+            this.plan = plan;
+        }
+    }
+
+    // single and subset lookups only evaluate the named experiments, so they read them from the plan of caches which
+    // publish one, and straight from the active experiments of caches which do not, rather than building a plan
+    private Treatment computeActiveTreatment(String experimentName,
+                                             EvaluationPlan plan,
+                                             Map<String, Experiment> experiments,
+                                             EvaluationContext evaluationContext) {
+        final AttributesMap attributes = evaluationContext.getAttributes();
 
-        final Experiment experiment = cache.getActiveExperiments().get(experimentName);
-        final AttributesMap attributes = identity
-                                            .computeAttributes()
-                                            .filter(Identity.getSupportedAttributes(identity.getClass()));
+        if (plan != null) {
+            final EvaluationPlan.Entry entry = plan.getEntry(experimentName);
+            if (entry == null || !entry.filter.evaluate(attributes)) {
+                return null;
+            }
+            return getTreatmentWithOverrides(entry, evaluationContext.getHashingContext(), null);
+        }
 
+        final Experiment experiment = experiments.get(experimentName);
         if (experiment == null || !experiment.getFilter().evaluate(attributes)) {
             return null;
         }
+        return getTreatmentWithOverrides(experiment, evaluationContext.getHashingContext());
+    }
 
-        return getTreatmentWithOverrides(experiment, identity, attributes);
+    private EvaluationPlan getPublishedPlan() {
+        return cache instanceof EvaluationPlanProvider ? ((EvaluationPlanProvider) cache).getEvaluationPlan() : null;
+    }
+
+    /**
+     * Returns the current active treatment for an experiment name and identity, taking overrides into account
+     */
+    public Treatment getActiveTreatment(String experimentName, Identity identity) {
+        return getActiveTreatment(experimentName, new EvaluationContext(identity));
+    }
+
+    /**
+     * Returns the current active treatment for an experiment name and the identity of an evaluation context, taking
+     * overrides into account.  The identity's attributes and hashes are reused by later calls with the same context
+     */
+    public Treatment getActiveTreatment(String experimentName, EvaluationContext evaluationContext) {
+        strategy.onCacheRead(experimentName, context);
+
+        final EvaluationPlan plan = getPublishedPlan();
+        final Map<String, Experiment> experiments = plan == null ? cache.getActiveExperiments() : null;
+        return computeActiveTreatment(experimentName, plan, experiments, evaluationContext);
     }
 
     /**
@@ -84,27 +194,195 @@ public class Experiments implements Closeable {
      * Returns all active treatments for all active experiments for an identity, taking overrides into account
      */
     public Map<Experiment, Treatment> getActiveTreatments(Identity identity) {
+        return getActiveTreatments(new EvaluationContext(identity));
+    }
+
+    /**
+     * Returns all active treatments for all active experiments for the identity of an evaluation context, taking
+     * overrides into account
+     */
+    public Map<Experiment, Treatment> getActiveTreatments(EvaluationContext evaluationContext) {
         strategy.onCacheRead(context);
+        final EvaluationPlan plan = readEvaluationPlan();
+        final Treatment[] treatments = new Treatment[plan.size()];
+        computeActiveTreatments(plan, evaluationContext, treatments, 0);
+
+        final Map<Experiment, Treatment> result = Maps.newHashMap();
+        for (final EvaluationPlan.Entry entry : plan.getEntries()) {
+            if (treatments[entry.index] != null) {
+                result.put(entry.experiment, treatments[entry.index]);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the active treatments of the named experiments for an identity, taking overrides into account.  The
+     * identity's attributes are computed once, and only the named experiments are evaluated.  Experiments which are
+     * not active are left out of the result
+     */
+    public Map<Experiment, Treatment> getActiveTreatments(Identity identity, Collection<String> experimentNames) {
+        return getActiveTreatments(new EvaluationContext(identity), experimentNames);
+    }
+
+    /**
+     * Returns the active treatments of the named experiments for the identity of an evaluation context, taking
+     * overrides into account
+     */
+    public Map<Experiment, Treatment> getActiveTreatments(EvaluationContext evaluationContext,
+                                                          Collection<String> experimentNames) {
+        for (final String experimentName : experimentNames) {
+            strategy.onCacheRead(experimentName, context);
+        }
+
+        final EvaluationPlan plan = getPublishedPlan();
+        final Map<String, Experiment> experiments = plan == null ? cache.getActiveExperiments() : null;
         final Map<Experiment, Treatment> result = Maps.newHashMap();
-        final AttributesMap attributes = identity
-                                            .computeAttributes()
-                                            .filter(Identity.getSupportedAttributes(identity.getClass()));
 
-        for (final Experiment experiment : cache.getActiveExperiments().values()) {
-            if (!experiment.getFilter().evaluate(attributes)) {
-                continue;
+        for (final String experimentName : experimentNames) {
+            final Treatment treatment = computeActiveTreatment(experimentName, plan, experiments, evaluationContext);
+            if (treatment != null) {
+                result.put(
+                    plan != null ? plan.getExperiment(experimentName) : experiments.get(experimentName),
+                    treatment
+                );
             }
+        }
+
+        return result;
+    }
 
-            final Treatment treatment = getTreatmentWithOverrides(experiment, identity, attributes);
+    /**
+     * Returns all active treatments for all active experiments for each of many identities, taking overrides into
+     * account.  The active experiments are read once for all of the identities
+     */
+    public TreatmentMatrix getActiveTreatments(Iterable<? extends Identity> identities) {
+        return getActiveTreatments(identities, null);
+    }
 
-            if (treatment == null) {
-                continue;
+    /**
+     * Returns all active treatments for all active experiments for each of many identities, taking overrides into
+     * account.  Large batches of identities are split between the threads of the given pool, while batches with more
+     * treatments than an array can hold are rejected
+     */
+    public TreatmentMatrix getActiveTreatments(Iterable<? extends Identity> identities, ForkJoinPool pool) {
+        strategy.onCacheRead(context);
+        return computeActiveTreatments(readEvaluationPlan(), identities, pool);
+    }
+
+    /**
+     * Returns a snapshot of the active experiments, which many batches of identities can be evaluated against so that
+     * every batch sees the same experiments
+     */
+    public EvaluationPlan getEvaluationPlan() {
+        strategy.onCacheRead(context);
+        return readEvaluationPlan();
+    }
+
+    /**
+     * Returns the active treatments for the experiments of a plan from {@link #getEvaluationPlan()} for each of many
+     * identities, taking overrides into account
+     */
+    public TreatmentMatrix getActiveTreatments(EvaluationPlan plan, Iterable<? extends Identity> identities) {
+        return computeActiveTreatments(plan, identities, null);
+    }
+
+    private TreatmentMatrix computeActiveTreatments(EvaluationPlan plan,
+                                                    Iterable<? extends Identity> identities,
+                                                    ForkJoinPool pool) {
+        final List<Identity> rows = ImmutableList.<Identity>copyOf(identities);
+        final Treatment[] treatments = new Treatment[getMatrixSize(rows.size(), plan.size())];
+
+        if (pool == null || rows.size() <= BATCH_SIZE) {
+            for (int i = 0; i < rows.size(); i++) {
+                computeActiveTreatments(plan, new EvaluationContext(rows.get(i)), treatments, i * plan.size());
             }
+        } else {
+            pool.invoke(new BatchTask(plan, rows, treatments, 0, rows.size()));
+        }
+
+        return new TreatmentMatrix(plan.getExperiments(), rows.size(), treatments);
+    }
 
-            result.put(experiment, treatment);
+    // the number of cells of a matrix of treatments, which must fit in an array
+    private static int getMatrixSize(int identities, int experiments) {
+        try {
+            return IntMath.checkedMultiply(identities, experiments);
+        } catch (final ArithmeticException e) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "%d identities for %d active experiments are too many to evaluate at once, split them into batches",
+                    identities,
+                    experiments
+                ),
+                e
+            );
         }
+    }
 
-        return result;
+    // puts the active treatment of each of the plan's experiments at the offset of the experiment's entry index
+    private void computeActiveTreatments(EvaluationPlan plan,
+                                         EvaluationContext evaluationContext,
+                                         Treatment[] treatments,
+                                         int offset) {
+        final AttributesMap attributes = evaluationContext.getAttributes();
+        final HashingContext hashingContext = evaluationContext.getHashingContext();
+        final FilterSet.Evaluation evaluation = plan.getFilters().evaluate(attributes);
+
+        // only experiments indexed under the identity's attribute values, or not indexed at all, can match
+        computeActiveTreatments(plan.getUnindexedEntries(), hashingContext, evaluation, treatments, offset);
+        for (final EvaluationPlan.AttributeIndex index : plan.getIndexes()) {
+            computeActiveTreatments(index.getEntries(attributes), hashingContext, evaluation, treatments, offset);
+        }
+    }
+
+    private void computeActiveTreatments(EvaluationPlan.Entry[] entries,
+                                         HashingContext context,
+                                         FilterSet.Evaluation evaluation,
+                                         Treatment[] treatments,
+                                         int offset) {
+        for (final EvaluationPlan.Entry entry : entries) {
+            if (matches(entry.filter, entry.filterIndex, context.getAttributes(), evaluation)) {
+                treatments[offset + entry.index] = getTreatmentWithOverrides(entry, context, evaluation);
+            }
+        }
+    }
+
+    /**
+     * Computes the active treatments of a range of identities, splitting ranges larger than a batch in half
+     */
+    private class BatchTask extends RecursiveAction {
+        private final EvaluationPlan plan;
+        private final List<Identity> identities;
+        private final Treatment[] treatments;
+        private final int start;
+        private final int end;
+
+        private BatchTask(EvaluationPlan plan, List<Identity> identities, Treatment[] treatments, int start, int end) {
+            this.plan = plan;
+            this.identities = identities;
+            this.treatments = treatments;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= BATCH_SIZE) {
+                for (int i = start; i < end; i++) {
+                    final EvaluationContext evaluationContext = new EvaluationContext(identities.get(i));
+                    computeActiveTreatments(plan, evaluationContext, treatments, i * plan.size());
+                }
+                return;
+            }
+
+            final int middle = (start + end) >>> 1;
+            invokeAll(
+                new BatchTask(plan, identities, treatments, start, middle),
+                new BatchTask(plan, identities, treatments, middle, end)
+            );
+        }
     }
 
     /**
@@ -156,10 +434,43 @@ public class Experiments implements Closeable {
      * Persists a specific experiment by name
      */
     public void save(Experiment experiment) {
+        validate(experiment);
         store.save(experiment);
         strategy.onSave(experiment, context);
     }
 
+    // when the identity types are known, filters which can never match any of them are rejected before being saved,
+    // and filters other than the default which always match any of them are reported
+    private void validate(Experiment experiment) {
+        if (supportedAttributes == null) {
+            return;
+        }
+
+        checkFilter(experiment.getFilter(), String.format("experiment %s", experiment.getName()));
+        for (final TreatmentOverride override : experiment.getOverrides()) {
+            checkFilter(override.getFilter(), String.format("override %s", override.getName()));
+        }
+    }
+
+    private void checkFilter(FilterExpression filter, String owner) {
+        Preconditions.checkArgument(
+            !filter.isAlwaysFalse(supportedAttributes),
+            "filter '%s' of %s can never match, given the supported attributes %s",
+            filter,
+            owner,
+            supportedAttributes
+        );
+
+        if (filter != FilterExpression.alwaysTrue() && filter.isAlwaysTrue(supportedAttributes)) {
+            LOG.warn(
+                "filter '{}' of {} always matches, given the supported attributes {}",
+                filter,
+                owner,
+                supportedAttributes
+            );
+        }
+    }
+
     /**
      * Creates a new experiment by name, which is not persisted until save is called
      */
@@ -176,6 +487,7 @@ public class Experiments implements Closeable {
         private final ExperimentsStoreProvider provider;
         private CacheStrategy strategy;
         private ExecutorService executorService;
+        private Set<String> supportedAttributes;
 
         public Builder(ExperimentsStoreProvider provider) {
             this.provider = provider;
@@ -191,8 +503,22 @@ public class Experiments implements Closeable {
             return this;
         }
 
+        /**
+         * The identity types that experiments are evaluated for.  When given, saving an experiment whose filter, or
+         * one of whose override filters, can never match the supported attributes of any of them fails, while one
+         * which always matches them is logged as a warning
+         */
+        public Builder identities(Iterable<Class<? extends Identity>> identityTypes) {
+            final ImmutableSet.Builder<String> supportedAttributes = ImmutableSet.builder();
+            for (final Class<? extends Identity> identityType : identityTypes) {
+                supportedAttributes.addAll(Identity.getSupportedAttributes(identityType));
+            }
+            this.supportedAttributes = supportedAttributes.build();
+            return this;
+        }
+
         public Experiments build() {
-            return new Experiments(provider, strategy, executorService);
+            return new Experiments(provider, strategy, executorService, supportedAttributes);
         }
     }
 }
@@ -0,0 +1,65 @@
+package io.rtr.alchemy.models;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The active treatments of many identities, all evaluated against the same active experiments.  Rows are the
+ * identities, in the order they were given, and columns are the active experiments.  Treatments are held in a single
+ * array rather than in a map per identity
+ */
+public final class TreatmentMatrix {
+    private final List<Experiment> experiments;
+    private final int size;
+    private final Treatment[] treatments;
+
+    TreatmentMatrix(List<Experiment> experiments, int size, Treatment[] treatments) {
+        this.experiments = experiments;
+        this.size = size;
+        this.treatments = treatments;
+    }
+
+    /**
+     * Returns the active experiments, by column
+     */
+    public List<Experiment> getExperiments() {
+        return experiments;
+    }
+
+    /**
+     * Returns the number of identities
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the active treatment of an identity for an experiment, by their row and column, or null if the
+     * identity is not part of the experiment
+     */
+    public Treatment getTreatment(int identity, int experiment) {
+        Preconditions.checkElementIndex(identity, size, "identity");
+        Preconditions.checkElementIndex(experiment, experiments.size(), "experiment");
+        return treatments[identity * experiments.size() + experiment];
+    }
+
+    /**
+     * Returns the active treatments of an identity by its row, as they would have been returned for the identity alone
+     */
+    public Map<Experiment, Treatment> getActiveTreatments(int identity) {
+        Preconditions.checkElementIndex(identity, size, "identity");
+        final Map<Experiment, Treatment> result = Maps.newHashMap();
+        final int offset = identity * experiments.size();
+
+        for (int i = 0; i < experiments.size(); i++) {
+            if (treatments[offset + i] != null) {
+                result.put(experiments.get(i), treatments[offset + i]);
+            }
+        }
+
+        return result;
+    }
+}
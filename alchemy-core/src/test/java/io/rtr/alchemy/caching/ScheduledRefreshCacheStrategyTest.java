@@ -0,0 +1,91 @@
+package io.rtr.alchemy.caching;
+
+import io.rtr.alchemy.db.ExperimentsCache;
+import io.rtr.alchemy.models.Experiment;
+import org.joda.time.Duration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class ScheduledRefreshCacheStrategyTest {
+    private static final int TIMEOUT_MILLIS = 1000;
+    private ScheduledRefreshCacheStrategy strategy;
+    private ExperimentsCache cache;
+    private CachingContext context;
+
+    @Before
+    public void setUp() {
+        strategy = new ScheduledRefreshCacheStrategy(Duration.millis(10));
+        cache = mock(ExperimentsCache.class);
+        context = spy(new CachingContext(cache, mock(Experiment.BuilderFactory.class), null));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Test
+    public void testCacheReadDoesNothing() {
+        strategy.onCacheRead(context);
+        strategy.onCacheRead("foo", context);
+        verifyZeroInteractions(context);
+        verifyZeroInteractions(cache);
+    }
+
+    @Test
+    public void testNotStale() {
+        strategy.onStart(context);
+        verify(cache, timeout(TIMEOUT_MILLIS).atLeast(2)).checkIfAnyStale();
+        verify(cache, never()).invalidateAll(any(Experiment.BuilderFactory.class));
+    }
+
+    @Test
+    public void testStale() {
+        doReturn(true).when(cache).checkIfAnyStale();
+        strategy.onStart(context);
+        verify(cache, timeout(TIMEOUT_MILLIS).atLeast(2)).invalidateAll(any(Experiment.BuilderFactory.class));
+    }
+
+    @Test
+    public void testFailedRefreshIsRetried() {
+        doThrow(new IllegalStateException("storage unavailable")).when(cache).checkIfAnyStale();
+        strategy.onStart(context);
+        verify(cache, timeout(TIMEOUT_MILLIS).atLeast(2)).checkIfAnyStale();
+    }
+
+    @Test
+    public void testJitter() {
+        final ScheduledRefreshCacheStrategy jittered = new ScheduledRefreshCacheStrategy(Duration.millis(1000), 0.2);
+        for (int i = 0; i < 1000; i++) {
+            final long delay = jittered.nextDelayMillis();
+            assertTrue("delay should be within the jitter of the period", delay >= 800 && delay <= 1200);
+        }
+
+        assertEquals(1000, new ScheduledRefreshCacheStrategy(Duration.millis(1000), 0).nextDelayMillis());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPeriod() {
+        new ScheduledRefreshCacheStrategy(Duration.ZERO);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidJitter() {
+        new ScheduledRefreshCacheStrategy(Duration.millis(10), 1);
+    }
+}
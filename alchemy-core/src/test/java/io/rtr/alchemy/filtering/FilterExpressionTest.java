@@ -1,11 +1,16 @@
 package io.rtr.alchemy.filtering;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.rtr.alchemy.identities.AttributesMap;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Set;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class FilterExpressionTest {
@@ -166,6 +171,215 @@ public class FilterExpressionTest {
         assertEval("1 != true", true);
     }
 
+    @Test
+    public void testIn() {
+        assertEval("apple in (\"pear\", \"apple\")", true);
+        assertEval("apple in (\"pear\", 1, true)", false);
+        assertEval("meaning_of_life in (7, 42, -3)", true);
+        assertEval("meaning_of_life in (\"42\")", false);
+        assertEval("foo in (true)", true);
+        assertEval("not_foo in (true)", false);
+        assertEval("missing in (1, \"missing\")", false);
+        assertEval("apple not in (\"pear\", \"banana\")", true);
+        assertEval("missing not in (1)", true);
+        assertEval("not one in (1) or foo", true);
+    }
+
+    @Test
+    public void testStartsWithAndMatches() {
+        assertEval("apple startsWith \"app\"", true);
+        assertEval("apple startsWith \"pp\"", false);
+        assertEval("one startsWith \"1\"", false);
+        assertEval("apple matches \"a.+e\"", true);
+        assertEval("apple matches \"pl\"", false);
+        assertEval("missing matches \".*\"", false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRegularExpression() {
+        FilterExpression.of("apple matches \"(\"");
+    }
+
+    @Test
+    public void testBetween() {
+        assertEval("meaning_of_life between 40 and 42", true);
+        assertEval("meaning_of_life between 42 and 50", true);
+        assertEval("meaning_of_life between -5 and 41", false);
+        assertEval("apple between 1 and 100", false);
+        assertEval("one between 0 and 1 and foo", true);
+    }
+
+    @Test
+    public void testKeywordsAsAttributes() {
+        final AttributesMap keywords =
+            AttributesMap
+                .newBuilder()
+                .put("in", true)
+                .put("between", 5)
+                .put("startsWith", "startsWith")
+                .put("matches", "matches")
+                .build();
+
+        assertTrue(FilterExpression.of("in").evaluate(keywords));
+        assertTrue(FilterExpression.of("in in (true)").evaluate(keywords));
+        assertTrue(FilterExpression.of("between between 1 and 10").evaluate(keywords));
+        assertTrue(FilterExpression.of("between = 5 and in").evaluate(keywords));
+        assertTrue(FilterExpression.of("startsWith startsWith \"start\"").evaluate(keywords));
+        assertTrue(FilterExpression.of("matches matches \"mat.*\"").evaluate(keywords));
+        assertTrue(FilterExpression.of("startsWith != matches").evaluate(keywords));
+    }
+
+    @Test
+    public void testEvaluateManyTimes() {
+        final FilterExpression expression = FilterExpression.of("(foo | one > 0) & apple = \"apple\" & !empty");
+        final AttributesMap other = AttributesMap
+            .newBuilder()
+            .put("foo", false)
+            .put("one", 1)
+            .put("apple", "orange")
+            .build();
+
+        // a compiled expression must not retain any state from previous evaluations
+        for (int i = 0; i < 3; i++) {
+            assertTrue(expression.evaluate(attributes));
+            assertFalse(expression.evaluate(other));
+            assertFalse(expression.evaluate(AttributesMap.empty()));
+        }
+    }
+
+    @Test
+    public void testOfIsInterned() {
+        final long hits = FilterExpression.getCacheStats().hitCount();
+        final FilterExpression expression = FilterExpression.of("interned & one > 0");
+
+        assertSame(expression, FilterExpression.of("interned & one > 0"));
+        assertEquals(hits + 1, FilterExpression.getCacheStats().hitCount());
+    }
+
+    @Test
+    public void testJunctionsReorderChildren() {
+        final FilterExpression and = FilterExpression.of("bool and num = 1 and str = \"other\"");
+        final FilterExpression or = FilterExpression.of("num = 2 or str = \"other\" or bool");
+        final FilterNode.Junction andRoot = (FilterNode.Junction) and.getRoot();
+        final FilterNode.Junction orRoot = (FilterNode.Junction) or.getRoot();
+        final AttributesMap attributes =
+            AttributesMap
+                .newBuilder()
+                .put("bool", true)
+                .put("num", 1)
+                .put("str", "str")
+                .build();
+
+        for (int i = 0; i < FilterNode.Junction.SAMPLE_SIZE; i++) {
+            assertFalse(and.evaluate(attributes));
+            assertTrue(or.evaluate(attributes));
+        }
+
+        assertFalse("children should be reordered once sampled", andRoot.isSampling());
+        assertEquals("the child which is always false should be evaluated first", "attribute:str EQUAL String:5:other",
+                     andRoot.getChildren()[0].getLeafKey());
+        assertEquals("the child which is always true should be evaluated first", "truthy bool",
+                     orRoot.getChildren()[0].getLeafKey());
+        assertFalse(and.evaluate(attributes));
+        assertTrue(or.evaluate(attributes));
+    }
+
+    @Test
+    public void testJunctionsResampleChildren() {
+        final FilterExpression or = FilterExpression.of("first or second");
+        final FilterNode.Junction root = (FilterNode.Junction) or.getRoot();
+        final AttributesMap first = AttributesMap.newBuilder().put("first", true).put("second", false).build();
+        final AttributesMap second = AttributesMap.newBuilder().put("first", false).put("second", true).build();
+
+        for (int i = 0; i < FilterNode.Junction.SAMPLE_SIZE; i++) {
+            assertTrue(or.evaluate(first));
+        }
+        assertEquals("truthy first", root.getChildren()[0].getLeafKey());
+
+        // the attributes change, and the next sample should find the other child decides the value
+        for (int i = FilterNode.Junction.SAMPLE_SIZE; i < FilterNode.Junction.SAMPLE_PERIOD; i++) {
+            assertTrue(or.evaluate(second));
+        }
+        assertTrue("a new sample should be taken once per period", root.isSampling());
+
+        for (int i = 0; i < FilterNode.Junction.SAMPLE_SIZE; i++) {
+            assertTrue(or.evaluate(second));
+        }
+        assertFalse(root.isSampling());
+        assertEquals("truthy second", root.getChildren()[0].getLeafKey());
+    }
+
+    @Test
+    public void testRequiredValues() {
+        assertEquals(
+            ImmutableMap.<String, Set<Object>>of(
+                "country", ImmutableSet.<Object>of("US"),
+                "version", ImmutableSet.<Object>of(3L)
+            ),
+            FilterExpression.of("country = \"US\" and 3 = version and age > 18").getRequiredValues()
+        );
+        assertEquals(
+            ImmutableMap.<String, Set<Object>>of("country", ImmutableSet.<Object>of("US", "CA")),
+            FilterExpression.of("country = \"US\" and foo or country = \"CA\" and bar").getRequiredValues()
+        );
+        assertEquals(
+            ImmutableMap.<String, Set<Object>>of("country", ImmutableSet.<Object>of()),
+            FilterExpression.of("country = \"US\" and country = \"CA\"").getRequiredValues()
+        );
+        assertEquals(
+            ImmutableMap.<String, Set<Object>>of("country", ImmutableSet.<Object>of("US", "CA")),
+            FilterExpression.of("country in (\"US\", \"CA\") and age > 18").getRequiredValues()
+        );
+        assertEquals(
+            ImmutableMap.<String, Set<Object>>of("country", ImmutableSet.<Object>of("CA")),
+            FilterExpression.of("country in (\"US\", \"CA\") and country = \"CA\"").getRequiredValues()
+        );
+        assertTrue(FilterExpression.of("country not in (\"US\")").getRequiredValues().isEmpty());
+        assertTrue(FilterExpression.of("country = \"US\" or bar").getRequiredValues().isEmpty());
+        assertTrue(FilterExpression.of("not country = \"US\"").getRequiredValues().isEmpty());
+        assertTrue(FilterExpression.of("country != \"US\"").getRequiredValues().isEmpty());
+    }
+
+    @Test
+    public void testConstantsAreFolded() {
+        assertTrue(FilterExpression.of("true and 1 = 1").isAlwaysTrue());
+        assertTrue(FilterExpression.of("foo or not false").isAlwaysTrue());
+        assertTrue(FilterExpression.of("1 = \"1\" and foo").isAlwaysFalse());
+        assertTrue(FilterExpression.of("not (bar or true)").isAlwaysFalse());
+        assertFalse(FilterExpression.of("foo and true").isAlwaysTrue());
+        assertFalse(FilterExpression.of("foo and true").isAlwaysFalse());
+        assertEquals("truthy foo", FilterExpression.of("true and foo").getRoot().getLeafKey());
+        assertEquals("truthy foo", FilterExpression.of("not not foo").getRoot().getLeafKey());
+        assertEquals("truthy foo", FilterExpression.of("foo and (foo or false)").getRoot().getLeafKey());
+    }
+
+    @Test
+    public void testNestedJunctionsAreFlattened() {
+        final FilterNode root = FilterExpression.of("a and (b and (c and true))").getRoot();
+        assertTrue(root instanceof FilterNode.And);
+        assertEquals(3, ((FilterNode.And) root).getChildren().length);
+        assertEval("foo and (one = 1 and (apple and true))", true);
+        assertEval("zero or (not_foo or (empty or false))", false);
+    }
+
+    @Test
+    public void testResolveSupportedAttributes() {
+        final Set<String> supported = ImmutableSet.of("country", "age");
+        final FilterExpression filter = FilterExpression.of("country = \"US\" and device");
+
+        assertEquals(ImmutableSet.of("country", "device"), filter.getAttributeNames());
+        assertFalse(filter.isAlwaysFalse());
+        assertTrue(filter.isAlwaysFalse(supported));
+        assertTrue(FilterExpression.of("country = \"US\" or device != \"phone\"").isAlwaysTrue(supported));
+        assertFalse(FilterExpression.of("age > 18 or device").isAlwaysFalse(supported));
+        assertFalse(FilterExpression.of("age > 18 or device").isAlwaysTrue(supported));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfInvalidExpression() {
+        FilterExpression.of("a|");
+    }
+
     @Test
     public void testIsValid() {
         assertTrue(FilterExpression.isValid("a"));
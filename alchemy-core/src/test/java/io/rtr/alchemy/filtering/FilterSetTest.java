@@ -0,0 +1,77 @@
+package io.rtr.alchemy.filtering;
+
+import com.google.common.collect.Lists;
+import io.rtr.alchemy.identities.AttributesMap;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class FilterSetTest {
+    private final List<FilterExpression> filters = Lists.newArrayList(
+        FilterExpression.of("a and country = \"US\""),
+        FilterExpression.of("country = \"US\" or b"),
+        FilterExpression.of("not a"),
+        FilterExpression.of("\"US\" = country and age >= 18"),
+        FilterExpression.alwaysTrue()
+    );
+
+    @Test
+    public void testLeavesAreShared() {
+        final FilterSet set = FilterSet.of(filters);
+
+        assertEquals(filters.size(), set.size());
+        assertEquals("identical leaves should be shared", 4, set.getLeafCount());
+    }
+
+    @Test
+    public void testMatchesEvaluation() {
+        final FilterSet set = FilterSet.of(filters);
+        final List<AttributesMap> attributes = Lists.newArrayList(
+            AttributesMap.empty(),
+            AttributesMap.newBuilder().put("a", true).put("country", "US").put("age", 18).build(),
+            AttributesMap.newBuilder().put("b", true).put("country", "CA").put("age", 17).build()
+        );
+
+        for (final AttributesMap attribute : attributes) {
+            final FilterSet.Evaluation evaluation = set.evaluate(attribute);
+
+            for (int i = 0; i < filters.size(); i++) {
+                // evaluated twice, so that the second evaluation only uses remembered leaves
+                assertEquals(filters.get(i).toString(), filters.get(i).evaluate(attribute), evaluation.matches(i));
+                assertEquals(filters.get(i).toString(), filters.get(i).evaluate(attribute), evaluation.matches(i));
+            }
+        }
+    }
+
+    @Test
+    public void testJunctionOrderIsKept() {
+        final FilterExpression filter = FilterExpression.of("bool and num = 1 and str = \"other\"");
+        final AttributesMap attributes =
+            AttributesMap
+                .newBuilder()
+                .put("bool", true)
+                .put("num", 1)
+                .put("str", "str")
+                .build();
+
+        final FilterSet set = FilterSet.of(Lists.newArrayList(filter));
+        for (int i = 0; i < FilterNode.Junction.SAMPLE_SIZE; i++) {
+            assertFalse(set.evaluate(attributes).matches(0));
+        }
+
+        final FilterNode.Junction root = (FilterNode.Junction) filter.getRoot();
+        final FilterNode.Junction rebuilt =
+            (FilterNode.Junction) FilterSet.of(Lists.newArrayList(filter)).getRoot(0);
+
+        assertFalse("the order learned in a set should be kept by the filter", root.isSampling());
+        assertFalse("the order learned in a set should be kept by later sets", rebuilt.isSampling());
+        assertEquals("attribute:str EQUAL String:5:other", root.getChildren()[0].getLeafKey());
+        assertEquals(
+            "attribute:str EQUAL String:5:other",
+            ((FilterNode.SharedLeaf) rebuilt.getChildren()[0]).getLeaf().getLeafKey()
+        );
+    }
+}
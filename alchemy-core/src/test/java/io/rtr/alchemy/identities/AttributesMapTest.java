@@ -1,11 +1,13 @@
 package io.rtr.alchemy.identities;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -48,12 +50,88 @@ public class AttributesMapTest {
         assertNull(map.getType("bad"));
     }
 
+    @Test
+    public void testGetById() {
+        final int one = AttributesSchema.idOf("one");
+        final int string = AttributesSchema.idOf("string");
+        final int missing = AttributesSchema.idOf("missing");
+
+        assertEquals(Long.class, map.getTypeById(one));
+        assertEquals(1, map.getNumberById(one));
+        assertTrue(map.getBooleanById(AttributesSchema.idOf("true")));
+        assertEquals("string", map.getStringById(string));
+
+        // wrong type
+        assertEquals(0, map.getNumberById(string));
+        assertNull(map.getStringById(one));
+
+        // does not exist
+        assertNull(map.getTypeById(missing));
+        assertNull(map.getById(missing));
+    }
+
+    @Test
+    public void testMapsWithoutSchemaDoNotAssignIds() {
+        final AttributesMap attributes = AttributesMap.newBuilder().put("unassigned", 1).put("assigned", 2).build();
+        final int assigned = AttributesSchema.idOf("assigned");
+
+        assertTrue(
+            "building a map without a schema should not assign ids",
+            AttributesSchema.idOf("unassigned") > assigned
+        );
+        assertEquals(2, attributes.getNumberById(assigned));
+        assertEquals(1, attributes.getNumberById(AttributesSchema.idOf("unassigned")));
+    }
+
+    @Test
+    public void testMapContract() {
+        assertEquals(Lists.newArrayList("true", "one", "string"), Lists.newArrayList(map.keySet()));
+        assertEquals(Lists.<Object>newArrayList(true, 1L, "string"), Lists.newArrayList(map.values()));
+        assertEquals(1L, map.get("one"));
+        assertTrue(map.containsKey("true"));
+        assertTrue(map.containsValue(1L));
+        assertEquals(3, map.size());
+    }
+
     @Test
     public void testFilter() {
         assertEquals(map.entrySet(), map.filter(map.keySet()).entrySet());
         assertTrue(map.filter(Sets.<String>newHashSet()).isEmpty());
     }
 
+    @Test
+    public void testFilterBySchema() {
+        final AttributesSchema schema = new AttributesSchema(Sets.newHashSet("one", "other"));
+        final AttributesMap filtered = map.filter(schema);
+
+        assertEquals(Sets.newHashSet("one"), filtered.keySet());
+        assertEquals(Long.valueOf(1), filtered.getNumber("one"));
+        assertSame("map built against the schema should not be filtered again", filtered, filtered.filter(schema));
+        assertSame(filtered, filtered.filter(schema.getNames()));
+    }
+
+    @Test
+    public void testBuilderDropsAttributesNotInSchema() {
+        final AttributesSchema schema = new AttributesSchema(Sets.newHashSet("one", "string"));
+        final AttributesMap attributes =
+            AttributesMap
+                .newBuilder(schema)
+                .put("string", "string")
+                .put("true", true)
+                .put("one", 1)
+                .build();
+
+        assertEquals(Lists.newArrayList("string", "one"), Lists.newArrayList(attributes.keySet()));
+        assertNull(attributes.get("true"));
+        assertEquals("string", attributes.getById(AttributesSchema.idOf("string")));
+        assertNull(attributes.getById(AttributesSchema.idOf("true")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateAttribute() {
+        AttributesMap.newBuilder().put("one", 1).put("one", 2).build();
+    }
+
     private void assertImmutable(String method, Runnable testMethod) {
         try {
             testMethod.run();
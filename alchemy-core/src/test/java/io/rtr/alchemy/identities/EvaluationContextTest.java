@@ -0,0 +1,46 @@
+package io.rtr.alchemy.identities;
+
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class EvaluationContextTest {
+    @Attributes({"foo"})
+    private static class CountingIdentity extends Identity {
+        private int computations;
+
+        @Override
+        public AttributesMap computeAttributes() {
+            computations++;
+            return attributes().put("foo", "bar").put("baz", 42).build();
+        }
+    }
+
+    @Test
+    public void testComputesAttributesOnce() {
+        final CountingIdentity identity = new CountingIdentity();
+        final EvaluationContext context = new EvaluationContext(identity);
+
+        assertEquals("attributes should not be computed until needed", 0, identity.computations);
+        final AttributesMap attributes = context.getAttributes();
+        assertSame(attributes, context.getAttributes());
+        assertSame(attributes, context.getHashingContext().getAttributes());
+        assertSame(context.getHashingContext(), context.getHashingContext());
+        assertEquals("attributes should be computed once", 1, identity.computations);
+    }
+
+    @Test
+    public void testAttributesAreLimitedToSchema() {
+        final EvaluationContext context = new EvaluationContext(new CountingIdentity());
+
+        assertEquals(Sets.newHashSet("foo"), context.getAttributes().keySet());
+        assertEquals("bar", context.getAttributes().getString("foo"));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testIdentityIsRequired() {
+        new EvaluationContext(null);
+    }
+}
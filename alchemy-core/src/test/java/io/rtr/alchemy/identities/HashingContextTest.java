@@ -0,0 +1,56 @@
+package io.rtr.alchemy.identities;
+
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class HashingContextTest {
+    private static class CountingIdentity extends Identity {
+        private int hashes;
+
+        @Override
+        public long computeHash(int seed, Set<String> hashAttributes, AttributesMap attributes) {
+            hashes++;
+            return super.computeHash(seed, hashAttributes, attributes);
+        }
+
+        @Override
+        public AttributesMap computeAttributes() {
+            return attributes().put("foo", "bar").put("baz", 42).build();
+        }
+    }
+
+    @Test
+    public void testHashesOncePerHashAttributes() {
+        final CountingIdentity identity = new CountingIdentity();
+        final HashingContext context = new HashingContext(identity, identity.computeAttributes());
+        final Set<String> all = Sets.newHashSet();
+        final Set<String> foo = Sets.newHashSet("foo");
+
+        context.computeHash(1, all);
+        context.computeHash(2, all);
+        context.computeHash(3, Sets.<String>newHashSet());
+        context.computeHash(1, foo);
+        context.computeHash(2, foo);
+        context.computeHash(1, Sets.newHashSet("baz"));
+
+        assertEquals("identity should be hashed once per distinct set of hash attributes", 3, identity.hashes);
+    }
+
+    @Test
+    public void testSeedIsMixedIntoHash() {
+        final CountingIdentity identity = new CountingIdentity();
+        final AttributesMap attributes = identity.computeAttributes();
+        final HashingContext context = new HashingContext(identity, attributes);
+        final Set<String> all = Sets.newHashSet();
+        final long hash = identity.computeHash(0, all, attributes);
+
+        assertEquals(HashingContext.mix(hash, 1), context.computeHash(1, all));
+        assertEquals(HashingContext.mix(hash, 2), context.computeHash(2, all));
+        assertNotEquals(context.computeHash(1, all), context.computeHash(2, all));
+    }
+}
@@ -1,9 +1,12 @@
 package io.rtr.alchemy.identities;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import org.apache.commons.math3.stat.inference.ChiSquareTest;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.nio.charset.Charset;
 import java.util.Set;
 
 import static org.junit.Assert.assertNotEquals;
@@ -79,6 +82,48 @@ public class IdentityBuilderTest {
         assertEquals("hashes generated with same seeds should be same", hash1, hash2);
     }
 
+    @Test
+    public void testMatchesGuavaMurmur3() {
+        final Charset charset = Charset.forName("UTF-8");
+        // includes multi-byte characters, a surrogate pair and an unpaired surrogate
+        final String[] strings = {"", "foo", "caf\u00e9", "\u65e5\u672c", "\ud83d\ude00", "\ud83d", "sixteen bytes!!!"};
+
+        for (int seed = -1; seed <= 1; seed++) {
+            for (final String string : strings) {
+                for (int longs = 0; longs < 3; longs++) {
+                    final Hasher hasher = Hashing.murmur3_128(seed).newHasher().putString(string, charset);
+                    final IdentityBuilder builder = IdentityBuilder.seed(seed).putString(string);
+
+                    for (int i = 0; i < longs; i++) {
+                        hasher.putLong(i).putBoolean(true);
+                        builder.putLong((long) i).putBoolean(true);
+                    }
+
+                    assertEquals(
+                        String.format("hash of '%s' should match guava", string),
+                        hasher.hash().asLong(),
+                        builder.hash()
+                    );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testThreadLocalIsReset() {
+        final long hash = IdentityBuilder.seed(1).putString("foo").hash();
+
+        IdentityBuilder.threadLocal(2).putString("bar");
+        assertEquals(hash, IdentityBuilder.threadLocal(1).putString("foo").hash());
+    }
+
+    @Test
+    public void testHashCanContinue() {
+        final IdentityBuilder builder = IdentityBuilder.seed(0).putString("foo");
+        assertEquals(builder.hash(), builder.hash());
+        assertEquals(IdentityBuilder.seed(0).putString("foo").putInt(1).hash(), builder.putInt(1).hash());
+    }
+
     private static final int SAMPLE_SIZE = 1000000;
     private static final int NUMBER_SEEDS = 3;
     private static final double EXPECTED_SIGNIFICANCE = 0.05;
@@ -10,6 +10,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 @Attributes(
@@ -28,6 +29,28 @@ public class IdentityTest extends Identity {
         assertNull(attributes.getNumber("quux"));
     }
 
+    @Test
+    public void testAttributesSchema() {
+        final AttributesSchema schema = getAttributesSchema(IdentityTest.class);
+
+        assertEquals(Sets.newHashSet("foo", "bar", "baz"), schema.getNames());
+        assertSame(schema, getAttributesSchema(IdentityTest.class));
+        assertSame(
+            "evaluated attributes should be limited to the schema",
+            schema,
+            new EvaluationContext(this).getAttributes().getSchema()
+        );
+        assertEquals(-1, schema.getSlot("quux"));
+    }
+
+    @Test
+    public void testUndeclaredAttributesAreKept() {
+        final Identity identity = new Undeclared();
+
+        assertEquals(Sets.newHashSet("baz", "quux"), identity.computeAttributes().keySet());
+        assertEquals(Sets.newHashSet("baz"), new EvaluationContext(identity).getAttributes().keySet());
+    }
+
     @Test
     public void testComputeHashcodeOrderMatters() {
         final IdentityTest identity = new IdentityTest();
@@ -62,4 +85,15 @@ public class IdentityTest extends Identity {
                     .build();
         }
     }
+
+    @Attributes({"baz"})
+    public static class Undeclared extends Identity {
+        @Override
+        public AttributesMap computeAttributes() {
+            return attributes()
+                    .put("baz", 1)
+                    .put("quux", 2)
+                    .build();
+        }
+    }
 }
@@ -0,0 +1,70 @@
+package io.rtr.alchemy.models;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AllocationTableTest {
+    private static final int RANGE_BINS = AllocationTable.MAX_ARRAY_BINS * 4;
+    private final Treatment control = new Treatment("control");
+    private final Treatment other = new Treatment("other");
+
+    private void testEmpty(int numBins) {
+        final AllocationTable table = AllocationTable.of(Lists.<Allocation>newArrayList(), numBins);
+        assertEquals("size should be zero", 0, table.getSize());
+
+        for (int i = 0; i < numBins; i++) {
+            assertNull("bins should be unallocated", table.getTreatment(i));
+        }
+    }
+
+    private void testSplitAllocations(int numBins) {
+        final AllocationTable table = AllocationTable.of(Lists.newArrayList(
+            new Allocation(control, 0, 10),
+            new Allocation(other, 10, 5),
+            new Allocation(control, 20, 10),
+            new Allocation(other, numBins - 1, 1)
+        ), numBins);
+
+        assertEquals("size should match", 26, table.getSize());
+
+        for (int i = 0; i < numBins; i++) {
+            final Treatment expected =
+                i < 10 ? control :
+                i < 15 ? other :
+                i >= 20 && i < 30 ? control :
+                i == numBins - 1 ? other :
+                null;
+            assertEquals(String.format("bin %d should match", i), expected, table.getTreatment(i));
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        testEmpty(Allocations.NUM_BINS);
+        testEmpty(RANGE_BINS);
+    }
+
+    @Test
+    public void testSplitAllocations() {
+        testSplitAllocations(Allocations.NUM_BINS);
+        testSplitAllocations(RANGE_BINS);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testOverlappingAllocations() {
+        AllocationTable.of(Lists.newArrayList(
+            new Allocation(control, 0, 10),
+            new Allocation(other, 5, 10)
+        ), RANGE_BINS);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAllocationExceedsBins() {
+        AllocationTable.of(Lists.newArrayList(
+            new Allocation(control, 95, 10)
+        ), Allocations.NUM_BINS);
+    }
+}
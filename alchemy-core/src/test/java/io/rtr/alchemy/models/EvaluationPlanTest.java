@@ -0,0 +1,93 @@
+package io.rtr.alchemy.models;
+
+import com.google.common.collect.ImmutableMap;
+import io.rtr.alchemy.filtering.FilterExpression;
+import io.rtr.alchemy.identities.AttributesMap;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class EvaluationPlanTest {
+    @Test
+    public void testEmpty() {
+        assertEquals(0, EvaluationPlan.empty().size());
+        assertNull(EvaluationPlan.empty().getExperiment("foo"));
+    }
+
+    @Test
+    public void testEntries() {
+        final Experiment foo =
+            new Experiment(null, "foo")
+                .addTreatment("control")
+                .addOverride("override", "control", "identified");
+        final Experiment bar = new Experiment(null, "bar");
+        final EvaluationPlan plan = EvaluationPlan.of(ImmutableMap.of("foo", foo, "bar", bar));
+
+        assertEquals(2, plan.size());
+        assertSame(foo, plan.getExperiment("foo"));
+        assertSame(bar, plan.getExperiment("bar"));
+        assertNull(plan.getExperiment("baz"));
+
+        final EvaluationPlan.Entry entry = plan.getEntry("foo");
+        assertSame(foo.getFilter(), entry.filter);
+        assertEquals(1, entry.overrideFilters.length);
+        assertEquals(foo.getOverride("override").getFilter(), entry.overrideFilters[0]);
+        assertEquals(new Treatment("control"), entry.overrideTreatments[0]);
+    }
+
+    @Test
+    public void testSnapshotIsNotChangedByExperiment() {
+        final Experiment foo =
+            new Experiment(null, "foo")
+                .addTreatment("control")
+                .addOverride("override", "control", "identified");
+        final EvaluationPlan plan = EvaluationPlan.of(ImmutableMap.of("foo", foo));
+
+        foo.clearOverrides();
+
+        assertEquals("plan should not change until it is rebuilt", 1, plan.getEntry("foo").overrideFilters.length);
+    }
+
+    @Test
+    public void testIndex() {
+        final Experiment us = new Experiment(null, "us").setFilter(FilterExpression.of("country = \"US\" and web"));
+        final Experiment ca = new Experiment(null, "ca").setFilter(FilterExpression.of("country = \"CA\" and web"));
+        final Experiment any = new Experiment(null, "any").setFilter(FilterExpression.of("web"));
+        final EvaluationPlan plan = EvaluationPlan.of(ImmutableMap.of("us", us, "ca", ca, "any", any));
+        final AttributesMap attributes = AttributesMap.newBuilder().put("country", "US").put("web", true).build();
+
+        assertEquals(1, plan.getUnindexedEntries().length);
+        assertSame(any, plan.getUnindexedEntries()[0].experiment);
+        assertEquals(1, plan.getIndexes().length);
+        assertEquals("country", plan.getIndexes()[0].getAttribute());
+
+        final EvaluationPlan.Entry[] candidates = plan.getIndexes()[0].getEntries(attributes);
+        assertEquals("only experiments indexed under the attribute's value should be candidates", 1, candidates.length);
+        assertSame(us, candidates[0].experiment);
+        assertEquals(0, plan.getIndexes()[0].getEntries(AttributesMap.empty()).length);
+    }
+
+    @Test
+    public void testIndexNumbersAndBooleans() {
+        final Experiment low = new Experiment(null, "low").setFilter(FilterExpression.of("level = 1 or level = 2"));
+        final Experiment high = new Experiment(null, "high").setFilter(FilterExpression.of("level = 3"));
+        final Experiment beta = new Experiment(null, "beta").setFilter(FilterExpression.of("beta = true"));
+        final EvaluationPlan plan = EvaluationPlan.of(ImmutableMap.of("low", low, "high", high, "beta", beta));
+        final AttributesMap attributes = AttributesMap.newBuilder().put("level", 2).put("beta", false).build();
+
+        assertEquals(0, plan.getUnindexedEntries().length);
+        assertEquals(2, plan.getIndexes().length);
+
+        for (final EvaluationPlan.AttributeIndex index : plan.getIndexes()) {
+            final EvaluationPlan.Entry[] candidates = index.getEntries(attributes);
+            if (index.getAttribute().equals("level")) {
+                assertEquals(1, candidates.length);
+                assertSame(low, candidates[0].experiment);
+            } else {
+                assertEquals("no experiment is indexed under false", 0, candidates.length);
+            }
+        }
+    }
+}
@@ -230,6 +230,41 @@ public class ExperimentTest {
         assertTrue(copy.getOverrides().get(0).getTreatment() == copy.getTreatments().get(0));
     }
 
+    @Test
+    public void testSetBins() {
+        final Experiment experiment =
+            new Experiment(null, "experiment")
+                .setBins(10000)
+                .addTreatment("foo")
+                .allocate("foo", 1);
+
+        assertEquals(10000, experiment.getBins());
+        assertEquals(1, experiment.getAllocations().get(0).getSize());
+        assertEquals(10000, Experiment.copyOf(experiment).getBins());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSetBinsWhileAllocated() {
+        new Experiment(null, "experiment")
+            .addTreatment("foo")
+            .allocate("foo", 1)
+            .setBins(10000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetUnsupportedHashVersion() {
+        new Experiment(null, "experiment").setHashVersion(0);
+    }
+
+    @Test
+    public void testHashToBin() {
+        assertEquals(0, Experiment.hashToBin(0, 10000));
+        assertEquals(5000, Experiment.hashToBin(Long.MIN_VALUE, 10000));
+        assertEquals(9999, Experiment.hashToBin(-1, 10000));
+        assertEquals(65535, Experiment.hashToBin(-1, 65536));
+        assertEquals(1, Experiment.hashToBin(Long.MIN_VALUE, 2));
+    }
+
     @Test
     public void testSave() {
         final Experiment experiment = new Experiment(experiments, "foo").save();
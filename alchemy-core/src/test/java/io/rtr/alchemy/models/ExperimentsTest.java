@@ -1,8 +1,13 @@
 package io.rtr.alchemy.models;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import io.rtr.alchemy.caching.CacheStrategy;
+import io.rtr.alchemy.caching.CachingContext;
+import io.rtr.alchemy.caching.ScheduledCacheStrategy;
 import io.rtr.alchemy.db.ExperimentsCache;
 import io.rtr.alchemy.db.ExperimentsStoreProvider;
 import io.rtr.alchemy.db.ExperimentsStore;
@@ -10,20 +15,35 @@ import io.rtr.alchemy.db.Filter;
 import io.rtr.alchemy.filtering.FilterExpression;
 import io.rtr.alchemy.identities.Attributes;
 import io.rtr.alchemy.identities.AttributesMap;
+import io.rtr.alchemy.identities.EvaluationContext;
 import io.rtr.alchemy.identities.Identity;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
 public class ExperimentsTest {
@@ -161,6 +181,161 @@ public class ExperimentsTest {
         verify(cache).getActiveExperiments();
     }
 
+    @Test
+    public void testEvaluationPlanIsReusedForSameActiveExperiments() {
+        final Experiment experiment = mock(Experiment.class);
+        final Identity identity = mock(Identity.class);
+        doReturn(FilterExpression.alwaysTrue()).when(experiment).getFilter();
+        doReturn(AttributesMap.empty()).when(identity).computeAttributes();
+        doReturn(ImmutableMap.of("foo", experiment))
+            .when(cache)
+            .getActiveExperiments();
+
+        experiments.getActiveTreatments(identity);
+        experiments.getActiveTreatments(identity);
+        verify(experiment, times(1)).getOverrides();
+
+        // a new map of active experiments has a new plan built for it
+        doReturn(ImmutableMap.of("foo", experiment))
+            .when(cache)
+            .getActiveExperiments();
+        experiments.getActiveTreatments(identity);
+        verify(experiment, times(2)).getOverrides();
+    }
+
+    @Test
+    public void testGetActiveTreatmentsSubset() {
+        final MyIdentity identity = new MyIdentity("foo");
+
+        final Experiment exp1 =
+            experiments
+                .create("exp1")
+                .addTreatment("control")
+                .allocate("control", 100)
+                .setFilter(FilterExpression.of("foo"))
+                .activate()
+                .save();
+
+        final Experiment exp2 =
+            experiments
+                .create("exp2")
+                .addTreatment("control")
+                .allocate("control", 100)
+                .activate()
+                .save();
+
+        final Experiment exp3 =
+            experiments
+                .create("exp3")
+                .addTreatment("control")
+                .allocate("control", 100)
+                .setFilter(FilterExpression.of("bar"))
+                .activate()
+                .save();
+
+        doReturn(
+            ImmutableMap.of(
+                "exp1", exp1,
+                "exp2", exp2,
+                "exp3", exp3
+            )
+        ).when(cache).getActiveExperiments();
+
+        final Map<Experiment, Treatment> treatments =
+            experiments.getActiveTreatments(identity, ImmutableList.of("exp1", "exp3", "missing"));
+
+        assertEquals(ImmutableSet.of(exp1), treatments.keySet());
+        assertEquals(exp1.getTreatment("control"), treatments.get(exp1));
+        assertTrue(experiments.getActiveTreatments(identity, ImmutableList.<String>of()).isEmpty());
+    }
+
+    @Test
+    public void testGetActiveTreatmentsBatch() {
+        final Experiment exp1 =
+            experiments
+                .create("exp1")
+                .addTreatment("control")
+                .allocate("control", 100)
+                .setFilter(FilterExpression.of("foo"))
+                .activate()
+                .save();
+
+        final Experiment exp2 =
+            experiments
+                .create("exp2")
+                .addTreatment("control")
+                .allocate("control", 100)
+                .setFilter(FilterExpression.of("bar"))
+                .activate()
+                .save();
+
+        doReturn(
+            ImmutableMap.of(
+                "exp1", exp1,
+                "exp2", exp2
+            )
+        ).when(cache).getActiveExperiments();
+
+        final List<MyIdentity> identities = Lists.newArrayList();
+        for (int i = 0; i < 1000; i++) {
+            identities.add(i % 2 == 0 ? new MyIdentity("foo") : new MyIdentity("foo", "bar"));
+        }
+
+        final TreatmentMatrix sequential = experiments.getActiveTreatments(identities);
+        final TreatmentMatrix parallel = experiments.getActiveTreatments(identities, new ForkJoinPool(4));
+
+        for (final TreatmentMatrix matrix : ImmutableList.of(sequential, parallel)) {
+            assertEquals(identities.size(), matrix.size());
+            assertEquals(ImmutableList.of(exp1, exp2), matrix.getExperiments());
+
+            for (int i = 0; i < identities.size(); i++) {
+                assertEquals(experiments.getActiveTreatments(identities.get(i)), matrix.getActiveTreatments(i));
+                assertNotNull(matrix.getTreatment(i, 0));
+                assertEquals(i % 2 != 0, matrix.getTreatment(i, 1) != null);
+            }
+        }
+    }
+
+    @Test
+    public void testEvaluationContextComputesAttributesOnce() {
+        final Experiment exp1 =
+            experiments
+                .create("exp1")
+                .addTreatment("control")
+                .allocate("control", 100)
+                .setFilter(FilterExpression.of("foo"))
+                .activate()
+                .save();
+
+        final Experiment exp2 =
+            experiments
+                .create("exp2")
+                .addTreatment("control")
+                .allocate("control", 100)
+                .setFilter(FilterExpression.of("bar"))
+                .activate()
+                .save();
+
+        doReturn(
+            ImmutableMap.of(
+                "exp1", exp1,
+                "exp2", exp2
+            )
+        ).when(cache).getActiveExperiments();
+
+        final MyIdentity identity = spy(new MyIdentity("foo"));
+        final EvaluationContext context = new EvaluationContext(identity);
+
+        assertEquals(exp1.getTreatment("control"), experiments.getActiveTreatment("exp1", context));
+        assertNull(experiments.getActiveTreatment("exp2", context));
+        assertEquals(ImmutableSet.of(exp1), experiments.getActiveTreatments(context).keySet());
+        assertEquals(
+            ImmutableSet.of(exp1),
+            experiments.getActiveTreatments(context, ImmutableList.of("exp1", "exp2")).keySet()
+        );
+        verify(identity, times(1)).computeAttributes();
+    }
+
     @Test
     public void testGetActiveExperiments() {
         experiments.getActiveExperiments();
@@ -182,6 +357,64 @@ public class ExperimentsTest {
         verifyZeroInteractions(cache);
     }
 
+    @Test
+    public void testSaveValidatesFiltersAgainstIdentities() {
+        final ExperimentsStoreProvider provider = mock(ExperimentsStoreProvider.class);
+        doReturn(store).when(provider).getStore();
+        doReturn(cache).when(provider).getCache();
+        final Experiments validating =
+            Experiments
+                .using(provider)
+                .identities(ImmutableList.<Class<? extends Identity>>of(MyIdentity.class))
+                .build();
+
+        final Experiment experiment = validating.create("foo").setFilter(FilterExpression.of("foo and not baz")).save();
+        verify(store).save(eq(experiment));
+
+        // a filter which always matches is only reported
+        final Experiment always = validating.create("qux").setFilter(FilterExpression.of("foo or not baz")).save();
+        verify(store).save(eq(always));
+
+        try {
+            validating.create("bar").setFilter(FilterExpression.of("foo and baz")).save();
+            fail("expected a filter which can never match to be rejected");
+        } catch (final IllegalArgumentException ignored) {
+        }
+
+        try {
+            validating.create("baz").addTreatment("control").addOverride("override", "control", "baz = 1").save();
+            fail("expected an override filter which can never match to be rejected");
+        } catch (final IllegalArgumentException ignored) {
+        }
+
+        verifyNoMoreInteractions(store);
+    }
+
+    @Test
+    public void testInitialLoadSharesBuilderFactoryWithContext() {
+        final ExperimentsStoreProvider provider = mock(ExperimentsStoreProvider.class);
+        final ScheduledCacheStrategy strategy = mock(ScheduledCacheStrategy.class);
+        doReturn(store).when(provider).getStore();
+        doReturn(cache).when(provider).getCache();
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                ((CachingContext) invocation.getArguments()[0]).invalidateAll(false);
+                return null;
+            }
+        }).when(strategy).onStart(any(CachingContext.class));
+
+        Experiments.using(provider).using(strategy).build();
+
+        final ArgumentCaptor<Experiment.BuilderFactory> factories = ArgumentCaptor.forClass(Experiment.BuilderFactory.class);
+        verify(cache, times(2)).invalidateAll(factories.capture());
+        assertSame(
+            "the first refresh should not reload everything again",
+            factories.getAllValues().get(0),
+            factories.getAllValues().get(1)
+        );
+    }
+
     @Test
     public void testFind() {
         experiments.find();
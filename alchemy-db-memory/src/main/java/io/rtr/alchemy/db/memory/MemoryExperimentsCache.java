@@ -1,46 +1,72 @@
 package io.rtr.alchemy.db.memory;
 
-import com.google.common.base.Predicate;
-import com.google.common.collect.Maps;
+import com.google.common.collect.ImmutableMap;
+import io.rtr.alchemy.db.EvaluationPlanProvider;
 import io.rtr.alchemy.db.ExperimentsCache;
+import io.rtr.alchemy.models.EvaluationPlan;
 import io.rtr.alchemy.models.Experiment;
 
-import javax.annotation.Nullable;
 import java.util.Map;
-import java.util.Map.Entry;
 
 /**
- * Implements a cache that caches experiments in memory
+ * Implements a cache that caches experiments in memory.  Active experiments are copied into an immutable snapshot,
+ * along with a plan to evaluate them with, which is only rebuilt when experiments are saved or deleted rather than on
+ * every read
  */
-public class MemoryExperimentsCache implements ExperimentsCache {
-    private static final ActiveFilter ACTIVE_FILTER = new ActiveFilter();
-    private static final ExperimentCopyTransformer EXPERIMENT_COPY_TRANSFORMER = new ExperimentCopyTransformer();
+public class MemoryExperimentsCache implements ExperimentsCache, EvaluationPlanProvider {
     private final Map<String, Experiment> db;
+    private volatile ImmutableMap<String, Experiment> activeExperiments;
+    private volatile EvaluationPlan evaluationPlan;
 
     public MemoryExperimentsCache(Map<String, Experiment> db) {
         this.db = db;
+        publish();
+    }
+
+    /**
+     * Rebuilds the snapshot of active experiments from the backing map
+     */
+    public synchronized void publish() {
+        final ImmutableMap.Builder<String, Experiment> builder = ImmutableMap.builder();
+        for (final Experiment experiment : db.values()) {
+            if (experiment.isActive()) {
+                builder.put(experiment.getName(), Experiment.copyOf(experiment));
+            }
+        }
+
+        activeExperiments = builder.build();
+        evaluationPlan = EvaluationPlan.of(activeExperiments);
     }
 
     @Override
     public Map<String, Experiment> getActiveExperiments() {
-        final Map<String, Experiment> filtered = Maps.filterEntries(db, ACTIVE_FILTER);
-        return Maps.transformEntries(filtered, EXPERIMENT_COPY_TRANSFORMER);
+        return activeExperiments;
+    }
+
+    @Override
+    public EvaluationPlan getEvaluationPlan() {
+        return evaluationPlan;
     }
 
     @Override
     public void invalidateAll(Experiment.BuilderFactory factory) {
+        publish();
     }
 
     @Override
     public void invalidate(String experimentName, Experiment.Builder builder) {
+        publish();
     }
 
+    // the backing map already holds the change, which stores not built with this cache do not publish themselves
     @Override
     public void update(Experiment experiment) {
+        publish();
     }
 
     @Override
     public void delete(String experimentName) {
+        publish();
     }
 
     @Override
@@ -52,18 +78,4 @@ public class MemoryExperimentsCache implements ExperimentsCache {
     public boolean checkIfStale(String experimentName) {
         return false;
     }
-
-    private static class ActiveFilter implements Predicate<Entry<String, Experiment>> {
-        @Override
-        public boolean apply(@Nullable Entry<String, Experiment> input) {
-            return input != null && input.getValue().isActive();
-        }
-    }
-
-    private static class ExperimentCopyTransformer implements Maps.EntryTransformer<String, Experiment, Experiment> {
-        @Override
-        public Experiment transformEntry(@Nullable String key, @Nullable Experiment value) {
-            return value == null ? null : Experiment.copyOf(value);
-        }
-    }
 }
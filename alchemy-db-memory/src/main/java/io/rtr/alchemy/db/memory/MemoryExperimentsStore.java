@@ -22,14 +22,30 @@ import java.util.Map.Entry;
  */
 public class MemoryExperimentsStore implements ExperimentsStore {
     private final Map<String, Experiment> db;
+    private final MemoryExperimentsCache cache;
 
     public MemoryExperimentsStore(Map<String, Experiment> db) {
+        this(db, null);
+    }
+
+    /**
+     * Creates a store which has the given cache rebuild its snapshot whenever experiments are saved or deleted
+     */
+    public MemoryExperimentsStore(Map<String, Experiment> db, MemoryExperimentsCache cache) {
         this.db = db;
+        this.cache = cache;
+    }
+
+    private void publish() {
+        if (cache != null) {
+            cache.publish();
+        }
     }
 
     @Override
     public void save(Experiment experiment) {
         db.put(experiment.getName(), Experiment.copyOf(experiment));
+        publish();
     }
 
     @Override
@@ -40,6 +56,7 @@ public class MemoryExperimentsStore implements ExperimentsStore {
     @Override
     public void delete(String experimentName) {
         db.remove(experimentName);
+        publish();
     }
 
     private static boolean filterMatches(String filter, Object ... values) {
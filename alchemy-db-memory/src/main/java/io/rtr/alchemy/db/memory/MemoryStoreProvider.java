@@ -14,23 +14,27 @@ import java.util.Map;
  */
 public class MemoryStoreProvider implements ExperimentsStoreProvider {
     private final Map<String, Experiment> db = Maps.newConcurrentMap();
+    private final MemoryExperimentsCache cache = new MemoryExperimentsCache(db);
+    private final MemoryExperimentsStore store = new MemoryExperimentsStore(db, cache);
 
     @Override
     public ExperimentsCache getCache() {
-        return new MemoryExperimentsCache(db);
+        return cache;
     }
 
     @Override
     public ExperimentsStore getStore() {
-        return new MemoryExperimentsStore(db);
+        return store;
     }
 
     public void resetDatabase() {
         db.clear();
+        cache.publish();
     }
 
     @Override
     public void close() throws IOException {
         db.clear();
+        cache.publish();
     }
 }
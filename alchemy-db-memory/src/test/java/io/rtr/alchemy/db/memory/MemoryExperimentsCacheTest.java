@@ -0,0 +1,84 @@
+package io.rtr.alchemy.db.memory;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import io.rtr.alchemy.db.ExperimentsCache;
+import io.rtr.alchemy.db.ExperimentsStore;
+import io.rtr.alchemy.db.ExperimentsStoreProvider;
+import io.rtr.alchemy.models.Experiment;
+import io.rtr.alchemy.models.Experiments;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryExperimentsCacheTest {
+    private MemoryStoreProvider provider;
+    private MemoryExperimentsCache cache;
+    private Experiments experiments;
+
+    @Before
+    public void setUp() {
+        provider = new MemoryStoreProvider();
+        cache = (MemoryExperimentsCache) provider.getCache();
+        experiments = Experiments.using(provider).build();
+    }
+
+    @Test
+    public void testSnapshotIsRebuiltOnlyOnChanges() {
+        final Experiment foo = experiments.create("foo").activate().save();
+        experiments.create("bar").save();
+
+        final Map<String, Experiment> snapshot = cache.getActiveExperiments();
+        assertEquals(ImmutableSet.of("foo"), snapshot.keySet());
+        assertNotSame("snapshot should hold a copy of the saved experiment", foo, snapshot.get("foo"));
+        assertSame(snapshot, cache.getActiveExperiments());
+        assertSame(cache.getEvaluationPlan(), cache.getEvaluationPlan());
+
+        experiments.get("bar").activate().save();
+        assertEquals(ImmutableSet.of("foo", "bar"), cache.getActiveExperiments().keySet());
+        assertEquals(ImmutableSet.of("foo"), snapshot.keySet());
+
+        experiments.delete("foo");
+        assertEquals(ImmutableSet.of("bar"), cache.getActiveExperiments().keySet());
+        assertEquals(1, cache.getEvaluationPlan().size());
+
+        provider.resetDatabase();
+        assertTrue(cache.getActiveExperiments().isEmpty());
+    }
+
+    @Test
+    public void testSnapshotIsRebuiltForStoresWithoutCache() {
+        final Map<String, Experiment> db = Maps.newConcurrentMap();
+        final MemoryExperimentsCache cache = new MemoryExperimentsCache(db);
+        final MemoryExperimentsStore store = new MemoryExperimentsStore(db);
+        final Experiments experiments =
+            Experiments.using(new ExperimentsStoreProvider() {
+                @Override
+                public ExperimentsStore getStore() {
+                    return store;
+                }
+
+                @Override
+                public ExperimentsCache getCache() {
+                    return cache;
+                }
+
+                @Override
+                public void close() throws IOException {
+                }
+            }).build();
+
+        experiments.create("foo").activate().save();
+        assertEquals(ImmutableSet.of("foo"), cache.getActiveExperiments().keySet());
+
+        experiments.delete("foo");
+        assertTrue(cache.getActiveExperiments().isEmpty());
+    }
+}
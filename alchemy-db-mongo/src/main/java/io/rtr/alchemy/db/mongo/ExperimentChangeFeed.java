@@ -0,0 +1,17 @@
+package io.rtr.alchemy.db.mongo;
+
+import java.io.Closeable;
+import java.util.Collection;
+
+/**
+ * A source of changes made to experiments in storage, in the order they were made
+ */
+public interface ExperimentChangeFeed extends Closeable {
+    /**
+     * Returns the names of experiments changed since the previous call, waiting a while for changes when there are
+     * none yet
+     * @return the names of changed experiments, empty if there were no changes, or null if changes may have been
+     * missed, in which case every experiment must be reloaded
+     */
+    Collection<String> nextChanges() throws InterruptedException;
+}
@@ -0,0 +1,73 @@
+package io.rtr.alchemy.db.mongo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.Collection;
+
+/**
+ * Applies changes from a change feed to the cache on a background thread as soon as they are made, so that changes
+ * propagate without checking whether experiments are stale
+ */
+public class ExperimentsWatcher implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(ExperimentsWatcher.class);
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    private final ExperimentChangeFeed feed;
+    private final MongoExperimentsCache cache;
+    private final Thread thread;
+    private volatile boolean closed;
+
+    public ExperimentsWatcher(ExperimentChangeFeed feed, MongoExperimentsCache cache) {
+        this.feed = feed;
+        this.cache = cache;
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                watch();
+            }
+        }, "alchemy-experiments-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    private void watch() {
+        while (!closed) {
+            try {
+                final Collection<String> changes = feed.nextChanges();
+                if (changes == null) {
+                    cache.reloadAll();
+                } else if (!changes.isEmpty()) {
+                    cache.reload(changes);
+                }
+            } catch (final InterruptedException e) {
+                return;
+            } catch (final RuntimeException e) {
+                if (closed) {
+                    return;
+                }
+
+                LOG.error("failed to apply changes to experiments, retrying", e);
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                } catch (final InterruptedException e1) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+        try {
+            feed.close();
+        } catch (final Exception e) {
+            LOG.warn("failed to close change feed", e);
+        }
+    }
+}
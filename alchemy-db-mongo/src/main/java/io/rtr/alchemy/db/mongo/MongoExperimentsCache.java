@@ -1,80 +1,189 @@
 package io.rtr.alchemy.db.mongo;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import io.rtr.alchemy.db.EvaluationPlanProvider;
 import io.rtr.alchemy.db.ExperimentsCache;
 import io.rtr.alchemy.db.mongo.models.ExperimentEntity;
+import io.rtr.alchemy.models.EvaluationPlan;
 import io.rtr.alchemy.models.Experiment;
 import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.mapping.Mapper;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 /**
- * A cache backed by MongoDB which allows for quick cached access to Experiments
+ * A cache backed by MongoDB which allows for quick cached access to Experiments.  Active experiments are published as
+ * immutable snapshots, replaced as a whole on every change, so that readers always see every change made by a reload
+ * or none of them
  */
-public class MongoExperimentsCache implements ExperimentsCache {
+public class MongoExperimentsCache implements ExperimentsCache, EvaluationPlanProvider {
     private final RevisionManager revisionManager;
     private final Datastore ds;
-    private volatile Map<String, Experiment> cachedExperiments;
+    private volatile ImmutableMap<String, Experiment> cachedExperiments = ImmutableMap.of();
+    private volatile EvaluationPlan evaluationPlan = EvaluationPlan.empty();
+    private volatile Experiment.BuilderFactory factory;
+    // the revision of every experiment when the cache was last loaded, guarded by this
+    private Map<String, Long> loadedRevisions;
 
     public MongoExperimentsCache(Datastore ds, RevisionManager revisionManager) {
         this.ds = ds;
         this.revisionManager = revisionManager;
     }
 
+    /**
+     * Loads every active experiment the first time, afterwards only the experiments saved or deleted since they were
+     * loaded, found by comparing the revisions of every experiment with those seen by the previous load
+     */
     @Override
-    public void invalidateAll(Experiment.BuilderFactory factory) {
+    public synchronized void invalidateAll(Experiment.BuilderFactory factory) {
+        // read before anything else, changes only move the revision past themselves once they are stored, so that
+        // every change up to it is loaded and a change stored while loading leaves the cache stale
+        final Long currentRevision = revisionManager.getCurrentRevision();
+        final Map<String, Long> revisions = revisionManager.getExperimentRevisions();
+
+        if (loadedRevisions == null || factory != this.factory) {
+            loadAll(factory);
+        } else {
+            loadChanges(factory, RevisionManager.getChangedExperiments(loadedRevisions, revisions));
+        }
+
+        loadedRevisions = revisions;
+        if (currentRevision != null) {
+            revisionManager.setLatestRevision(currentRevision);
+        }
+        this.factory = factory;
+    }
+
+    private void loadAll(Experiment.BuilderFactory factory) {
         final Iterator<ExperimentEntity> iterator =
             ds
                 .find(ExperimentEntity.class)
-                .field("active").equal(true)
+                .field(ExperimentEntity.FIELD_ACTIVE).equal(true)
                 .iterator();
 
-        final Map<String, Experiment> newMap = Maps.newConcurrentMap();
-        Long maxRevision = null;
+        final Map<String, Experiment> newMap = Maps.newHashMap();
 
         while (iterator.hasNext()) {
             final ExperimentEntity entity = iterator.next();
+            newMap.put(entity.name, entity.toExperiment(factory.createBuilder(entity.name)));
+        }
 
-            if (maxRevision == null || entity.revision > maxRevision) {
-                maxRevision = entity.revision;
-            }
+        publish(newMap);
+    }
 
-            newMap.put(entity.name, entity.toExperiment(factory.createBuilder(entity.name)));
+    private void loadChanges(Experiment.BuilderFactory factory, Set<String> experimentNames) {
+        if (experimentNames.isEmpty()) {
+            return;
+        }
+
+        final Iterator<ExperimentEntity> iterator =
+            ds
+                .find(ExperimentEntity.class)
+                .field(Mapper.ID_KEY).in(experimentNames)
+                .iterator();
+
+        // experiments which are not found were deleted
+        final Map<String, Experiment> changes = Maps.newHashMap();
+        for (final String experimentName : experimentNames) {
+            changes.put(experimentName, null);
         }
 
-        if (maxRevision != null) {
-            revisionManager.setLatestRevision(maxRevision);
+        while (iterator.hasNext()) {
+            final ExperimentEntity entity = iterator.next();
+            changes.put(entity.name, entity.active ? entity.toExperiment(factory.createBuilder(entity.name)) : null);
         }
-        cachedExperiments = newMap;
+
+        publishChanges(changes);
+    }
+
+    // the plan is rebuilt with every snapshot, so that the last change made is always reflected in the published plan
+    private synchronized void publish(Map<String, Experiment> experiments) {
+        cachedExperiments = ImmutableMap.copyOf(experiments);
+        evaluationPlan = EvaluationPlan.of(cachedExperiments);
+    }
+
+    /**
+     * Publishes a snapshot with the given experiments replaced, or removed where they are mapped to null
+     */
+    private synchronized void publishChanges(Map<String, Experiment> changes) {
+        final Map<String, Experiment> experiments = Maps.newHashMap(cachedExperiments);
+        for (final Map.Entry<String, Experiment> change : changes.entrySet()) {
+            if (change.getValue() != null) {
+                experiments.put(change.getKey(), change.getValue());
+            } else {
+                experiments.remove(change.getKey());
+            }
+        }
+        publish(experiments);
+    }
+
+    @Override
+    public EvaluationPlan getEvaluationPlan() {
+        return evaluationPlan;
     }
 
     @Override
     public Map<String, Experiment> getActiveExperiments() {
-        return Collections.unmodifiableMap(cachedExperiments);
+        return cachedExperiments;
     }
 
+    // experiments are loaded under the same lock they are published under, so that an experiment loaded before a newer
+    // reload of it can never be published after it
     @Override
-    public void invalidate(String experimentName, Experiment.Builder builder) {
+    public synchronized void invalidate(String experimentName, Experiment.Builder builder) {
+        final Map<String, Experiment> changes = Maps.newHashMap();
+        changes.put(experimentName, load(experimentName, builder));
+        publishChanges(changes);
+    }
+
+    /**
+     * Loads an experiment from storage, returning null if it is no longer active
+     */
+    private Experiment load(String experimentName, Experiment.Builder builder) {
         final ExperimentEntity entity = ds.get(ExperimentEntity.class, experimentName);
-        final Experiment experiment = entity.toExperiment(builder);
-        if (experiment.isActive()) {
-            cachedExperiments.put(experimentName, experiment);
-        } else {
-            cachedExperiments.remove(experimentName);
+        final Experiment experiment = entity != null ? entity.toExperiment(builder) : null;
+        return experiment != null && experiment.isActive() ? experiment : null;
+    }
+
+    /**
+     * Reloads the given experiments from storage, ignored until the cache has been loaded once
+     */
+    synchronized void reload(Collection<String> experimentNames) {
+        final Experiment.BuilderFactory factory = this.factory;
+        if (factory == null) {
+            return;
         }
 
+        final Map<String, Experiment> changes = Maps.newHashMap();
+        for (final String experimentName : experimentNames) {
+            changes.put(experimentName, load(experimentName, factory.createBuilder(experimentName)));
+        }
+        publishChanges(changes);
+    }
+
+    /**
+     * Reloads every experiment from storage, ignored until the cache has been loaded once
+     */
+    void reloadAll() {
+        final Experiment.BuilderFactory factory = this.factory;
+        if (factory != null) {
+            invalidateAll(factory);
+        }
     }
 
     @Override
     public void update(Experiment experiment) {
-        cachedExperiments.put(experiment.getName(), experiment);
+        publishChanges(Collections.singletonMap(experiment.getName(), experiment));
     }
 
     @Override
     public void delete(String experimentName) {
-        cachedExperiments.remove(experimentName);
+        publishChanges(Collections.singletonMap(experimentName, (Experiment) null));
     }
 
     @Override
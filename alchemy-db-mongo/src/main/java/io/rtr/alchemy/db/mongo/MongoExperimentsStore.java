@@ -30,6 +30,9 @@ public class MongoExperimentsStore implements ExperimentsStore {
         final ExperimentEntity entity = ExperimentEntity.from(experiment);
         entity.revision = revisionManager.nextRevision();
         ds.save(entity);
+        // moves the latest revision past the experiment once it is stored, so that a cache which read the latest
+        // revision while the experiment was being stored notices it is stale
+        revisionManager.nextRevision();
     }
 
     @Override
@@ -44,6 +47,8 @@ public class MongoExperimentsStore implements ExperimentsStore {
     @Override
     public void delete(String experimentName) {
         ds.delete(ExperimentEntity.class, experimentName);
+        // moves the latest revision, so that caches checking whether anything is stale notice the deletion
+        revisionManager.nextRevision();
     }
 
     @Override
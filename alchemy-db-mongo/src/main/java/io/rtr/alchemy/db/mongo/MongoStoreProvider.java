@@ -8,6 +8,8 @@ import com.mongodb.ServerAddress;
 import io.rtr.alchemy.db.ExperimentsStoreProvider;
 import io.rtr.alchemy.db.ExperimentsCache;
 import io.rtr.alchemy.db.ExperimentsStore;
+import io.rtr.alchemy.db.mongo.models.ExperimentEntity;
+import io.rtr.alchemy.db.mongo.models.MetadataEntity;
 import io.rtr.alchemy.db.mongo.util.DateTimeConverter;
 import org.mongodb.morphia.AdvancedDatastore;
 import org.mongodb.morphia.Morphia;
@@ -23,6 +25,7 @@ public class MongoStoreProvider implements ExperimentsStoreProvider {
     private final MongoClient client;
     private final ExperimentsStore store;
     private final ExperimentsCache cache;
+    private final ExperimentsWatcher watcher;
 
     public static Builder newBuilder() {
         return new Builder();
@@ -31,17 +34,30 @@ public class MongoStoreProvider implements ExperimentsStoreProvider {
     private MongoStoreProvider(List<ServerAddress> hosts,
                                List<MongoCredential> credentials,
                                MongoClientOptions options,
-                               String database) {
+                               String database,
+                               boolean watchChanges) {
 
         final Morphia morphia = new Morphia();
         morphia.getMapper().getOptions().setStoreEmpties(true);
         morphia.getMapper().getConverters().addConverter(DateTimeConverter.class);
+        morphia.map(ExperimentEntity.class, MetadataEntity.class);
         client = options == null ? new MongoClient(hosts, credentials) : new MongoClient(hosts, credentials, options);
 
         final AdvancedDatastore ds = (AdvancedDatastore) morphia.createDatastore(client, database);
+        // creates the indexes declared by the entities, which reading revisions and active experiments rely on
+        ds.ensureIndexes();
         final RevisionManager revisionManager = new RevisionManager(ds);
         this.store = new MongoExperimentsStore(ds, revisionManager);
-        this.cache = new MongoExperimentsCache(ds, revisionManager);
+        final MongoExperimentsCache cache = new MongoExperimentsCache(ds, revisionManager);
+        this.cache = cache;
+
+        if (watchChanges) {
+            final OplogChangeFeed feed = new OplogChangeFeed(client, ds.getCollection(ExperimentEntity.class));
+            watcher = new ExperimentsWatcher(feed, cache);
+            watcher.start();
+        } else {
+            watcher = null;
+        }
     }
 
     @Override
@@ -56,6 +72,9 @@ public class MongoStoreProvider implements ExperimentsStoreProvider {
 
     @Override
     public void close() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
         client.close();
     }
 
@@ -64,6 +83,7 @@ public class MongoStoreProvider implements ExperimentsStoreProvider {
         private List<MongoCredential> credentials;
         private MongoClientOptions options;
         private String database;
+        private boolean watchChanges;
 
         public Builder() {
             this.hosts = Lists.newArrayList();
@@ -76,6 +96,15 @@ public class MongoStoreProvider implements ExperimentsStoreProvider {
             return this;
         }
 
+        /**
+         * Whether to apply changes to the cache as soon as they are made, by tailing the oplog, which requires the
+         * database to be part of a replica set
+         */
+        public Builder setWatchChanges(boolean watchChanges) {
+            this.watchChanges = watchChanges;
+            return this;
+        }
+
         public Builder setOptions(MongoClientOptions options) {
             this.options = options;
             return this;
@@ -100,7 +129,8 @@ public class MongoStoreProvider implements ExperimentsStoreProvider {
                 hosts,
                 credentials,
                 options,
-                database
+                database,
+                watchChanges
             );
         }
     }
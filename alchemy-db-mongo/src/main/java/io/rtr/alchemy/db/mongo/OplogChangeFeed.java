@@ -0,0 +1,144 @@
+package io.rtr.alchemy.db.mongo;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.Bytes;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.MongoClient;
+import com.mongodb.MongoException;
+import org.bson.types.BSONTimestamp;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * A change feed which tails the oplog of a replica set for changes made to the experiments collection.  Changes are
+ * returned one oplog entry at a time, as soon as they are written.  When the feed's position in the oplog has been
+ * overwritten before it could be read, for example after the connection was lost for a while, changes are reported as
+ * missed.  The position is moved up to the head of the oplog whenever there are no changes, so that writes to other
+ * collections cannot push it out of the oplog
+ */
+public class OplogChangeFeed implements ExperimentChangeFeed {
+    private static final String OPLOG_DATABASE = "local";
+    private static final String OPLOG_COLLECTION = "oplog.rs";
+    private static final String FIELD_TIMESTAMP = "ts";
+    private static final String FIELD_NAMESPACE = "ns";
+    private static final String FIELD_OPERATION = "op";
+    private static final String FIELD_OBJECT = "o";
+    private static final String FIELD_UPDATED_OBJECT = "o2";
+    private static final String FIELD_ID = "_id";
+    private static final String OPERATION_UPDATE = "u";
+    static final long REOPEN_DELAY_MILLIS = 1000;
+
+    private final DBCollection oplog;
+    private final String namespace;
+    private volatile DBCursor cursor;
+    private volatile boolean closed;
+    private BSONTimestamp position;
+
+    public OplogChangeFeed(MongoClient client, DBCollection experiments) {
+        this.oplog = client.getDB(OPLOG_DATABASE).getCollection(OPLOG_COLLECTION);
+        this.namespace = experiments.getFullName();
+        // only changes made from now on are of interest, the cache loads everything before that
+        this.position = getTimestamp(-1);
+    }
+
+    private BSONTimestamp getTimestamp(int order) {
+        final DBCursor entries = oplog.find().sort(new BasicDBObject("$natural", order)).limit(1);
+        try {
+            return entries.hasNext() ? (BSONTimestamp) entries.next().get(FIELD_TIMESTAMP) : null;
+        } finally {
+            entries.close();
+        }
+    }
+
+    private static boolean isAfter(BSONTimestamp timestamp, BSONTimestamp other) {
+        return
+            timestamp.getTime() > other.getTime() ||
+            (timestamp.getTime() == other.getTime() && timestamp.getInc() > other.getInc());
+    }
+
+    private DBCursor open() {
+        final BasicDBObject query = new BasicDBObject(FIELD_NAMESPACE, namespace);
+        if (position != null) {
+            query.append(FIELD_TIMESTAMP, new BasicDBObject("$gt", position));
+        }
+
+        return
+            oplog
+                .find(query)
+                .addOption(Bytes.QUERYOPTION_TAILABLE)
+                .addOption(Bytes.QUERYOPTION_AWAITDATA)
+                .addOption(Bytes.QUERYOPTION_OPLOGREPLAY);
+    }
+
+    private void closeCursor() {
+        final DBCursor current = cursor;
+        cursor = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private static String getExperimentName(DBObject entry) {
+        final Object object =
+            OPERATION_UPDATE.equals(entry.get(FIELD_OPERATION)) ?
+                entry.get(FIELD_UPDATED_OBJECT) :
+                entry.get(FIELD_OBJECT);
+
+        if (!(object instanceof DBObject)) {
+            return null;
+        }
+
+        final Object id = ((DBObject) object).get(FIELD_ID);
+        return id != null ? id.toString() : null;
+    }
+
+    @Override
+    public Collection<String> nextChanges() throws InterruptedException {
+        if (closed) {
+            return Collections.emptyList();
+        }
+
+        boolean missed = false;
+        if (cursor == null) {
+            final BSONTimestamp earliest = getTimestamp(1);
+            missed = position != null && (earliest == null || isAfter(earliest, position));
+            cursor = open();
+        }
+
+        try {
+            // read before asking the cursor, so that the cursor has been through every entry up to it when it is empty
+            final BSONTimestamp head = getTimestamp(-1);
+            final DBObject entry = cursor.tryNext();
+
+            if (entry == null) {
+                if (head != null && (position == null || isAfter(head, position))) {
+                    position = head;
+                }
+
+                if (cursor.getCursorId() == 0) {
+                    // the cursor is dead, e.g. because nothing matched when it was opened, and is reopened after a
+                    // while rather than right away
+                    closeCursor();
+                    Thread.sleep(REOPEN_DELAY_MILLIS);
+                }
+                return missed ? null : Collections.<String>emptyList();
+            }
+
+            position = (BSONTimestamp) entry.get(FIELD_TIMESTAMP);
+            final String experimentName = getExperimentName(entry);
+            return missed || experimentName == null ? null : Collections.singletonList(experimentName);
+        } catch (final MongoException e) {
+            closeCursor();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        closeCursor();
+    }
+}
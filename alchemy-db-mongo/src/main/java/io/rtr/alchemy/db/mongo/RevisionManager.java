@@ -1,9 +1,16 @@
 package io.rtr.alchemy.db.mongo;
 
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.mongodb.MongoException;
 import io.rtr.alchemy.db.mongo.models.ExperimentEntity;
 import io.rtr.alchemy.db.mongo.models.MetadataEntity;
 import org.mongodb.morphia.AdvancedDatastore;
+import org.mongodb.morphia.mapping.Mapper;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Manages what revision experiments are at in order to check when experiments are stale
@@ -42,10 +49,59 @@ public class RevisionManager {
     }
 
     private Long getExperimentRevision(String experimentName) {
-        final ExperimentEntity experiment = ds.get(ExperimentEntity.class, experimentName);
+        final ExperimentEntity experiment =
+            ds
+                .find(ExperimentEntity.class, Mapper.ID_KEY, experimentName)
+                .retrievedFields(true, ExperimentEntity.FIELD_REVISION)
+                .get();
         return experiment != null ? experiment.revision : null;
     }
 
+    /**
+     * Returns the revision of every experiment by name, in a single query which only retrieves their revisions.
+     * Stores take an experiment's revision before storing it, so a query for revisions after the last one loaded
+     * could miss an experiment stored after that revision was read, and deletions leave nothing behind to query;
+     * comparing every revision catches both, and is only done once {@link #checkIfAnyStale()} reports a change
+     */
+    public Map<String, Long> getExperimentRevisions() {
+        final Iterator<ExperimentEntity> iterator =
+            ds
+                .find(ExperimentEntity.class)
+                .field(ExperimentEntity.FIELD_REVISION).greaterThanOrEq(Long.MIN_VALUE)
+                .retrievedFields(true, ExperimentEntity.FIELD_REVISION)
+                .iterator();
+
+        final Map<String, Long> revisions = Maps.newHashMap();
+        while (iterator.hasNext()) {
+            final ExperimentEntity experiment = iterator.next();
+            revisions.put(experiment.name, experiment.revision);
+        }
+
+        return revisions;
+    }
+
+    /**
+     * Returns the names of experiments which were saved or deleted since they were at the given revisions, along with
+     * experiments which are not among them
+     */
+    public static Set<String> getChangedExperiments(Map<String, Long> knownRevisions, Map<String, Long> revisions) {
+        final Set<String> changed = Sets.newHashSet();
+
+        for (final Map.Entry<String, Long> revision : revisions.entrySet()) {
+            if (!revision.getValue().equals(knownRevisions.get(revision.getKey()))) {
+                changed.add(revision.getKey());
+            }
+        }
+
+        for (final String experimentName : knownRevisions.keySet()) {
+            if (!revisions.containsKey(experimentName)) {
+                changed.add(experimentName);
+            }
+        }
+
+        return changed;
+    }
+
     public long nextRevision() {
         return
             (Long) ds
@@ -55,6 +111,14 @@ public class RevisionManager {
                 ).value;
     }
 
+    /**
+     * Returns the revision of the latest change made in storage.  Stores move the revision again once a change is
+     * stored, so every change up to the returned revision can be read
+     */
+    public Long getCurrentRevision() {
+        return getValue();
+    }
+
     public void setLatestRevision(Long revision) {
         latestRevision = revision;
     }
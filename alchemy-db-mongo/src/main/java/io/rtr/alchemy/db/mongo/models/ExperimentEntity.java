@@ -7,6 +7,7 @@ import com.google.common.collect.Sets;
 import io.rtr.alchemy.db.Ordering;
 import io.rtr.alchemy.db.mongo.util.DateTimeConverter;
 import io.rtr.alchemy.models.Allocation;
+import io.rtr.alchemy.models.Allocations;
 import io.rtr.alchemy.models.Experiment;
 import io.rtr.alchemy.models.Treatment;
 import io.rtr.alchemy.models.TreatmentOverride;
@@ -15,7 +16,9 @@ import org.mongodb.morphia.annotations.Converters;
 import org.mongodb.morphia.annotations.Embedded;
 import org.mongodb.morphia.annotations.Entity;
 import org.mongodb.morphia.annotations.Id;
+import org.mongodb.morphia.annotations.Index;
 import org.mongodb.morphia.annotations.Indexed;
+import org.mongodb.morphia.annotations.Indexes;
 import javax.annotation.Nullable;
 import java.util.List;
 
@@ -25,6 +28,7 @@ import java.util.List;
  */
 @Entity(value = "Experiments", noClassnameStored = true)
 @Converters(DateTimeConverter.class)
+@Indexes(@Index("revision, _id"))
 public class ExperimentEntity {
     private static final TreatmentMapper TREATMENT_MAPPER = new TreatmentMapper();
     private static final AllocationMapper ALLOCATION_MAPPER = new AllocationMapper();
@@ -36,6 +40,12 @@ public class ExperimentEntity {
 
     public int seed;
 
+    // zero for experiments saved before the number of bins could be chosen
+    public int bins;
+
+    // zero for experiments saved before the hash version could be chosen
+    public int hashVersion;
+
     public static final String FIELD_DESCRIPTION = "description";
     public String description;
 
@@ -46,6 +56,8 @@ public class ExperimentEntity {
     @Indexed
     public boolean active;
 
+    // covered by the index on revision and name, so that revisions can be read without reading experiments
+    public static final String FIELD_REVISION = "revision";
     public long revision;
 
     public static final String FIELD_CREATED = "created";
@@ -103,6 +115,8 @@ public class ExperimentEntity {
     public Experiment toExperiment(Experiment.Builder builder) {
         builder
             .seed(seed)
+            .bins(bins > 0 ? bins : Allocations.NUM_BINS)
+            .hashVersion(hashVersion > 0 ? hashVersion : Experiment.HASH_VERSION_SEEDED)
             .description(description)
             .filter(filter)
             .hashAttributes(Sets.newLinkedHashSet(hashAttributes))
@@ -139,6 +153,8 @@ public class ExperimentEntity {
     private ExperimentEntity(Experiment experiment) {
         name = experiment.getName();
         seed = experiment.getSeed();
+        bins = experiment.getBins();
+        hashVersion = experiment.getHashVersion();
         description = experiment.getDescription();
         active = experiment.isActive();
         created = experiment.getCreated();
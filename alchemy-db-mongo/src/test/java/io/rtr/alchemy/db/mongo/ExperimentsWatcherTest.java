@@ -0,0 +1,103 @@
+package io.rtr.alchemy.db.mongo;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Queues;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class ExperimentsWatcherTest {
+    private static final int TIMEOUT_MILLIS = 1000;
+    private FakeChangeFeed feed;
+    private MongoExperimentsCache cache;
+    private ExperimentsWatcher watcher;
+
+    /**
+     * A change feed whose changes are added by the test
+     */
+    private static class FakeChangeFeed implements ExperimentChangeFeed {
+        private static final Collection<String> MISSED = Lists.newArrayList();
+        private final BlockingQueue<Collection<String>> changes = Queues.newLinkedBlockingQueue();
+        private volatile boolean closed;
+
+        public void change(String ... experimentNames) {
+            changes.add(ImmutableList.copyOf(experimentNames));
+        }
+
+        public void miss() {
+            changes.add(MISSED);
+        }
+
+        @Override
+        public Collection<String> nextChanges() throws InterruptedException {
+            final Collection<String> next = changes.poll(10, TimeUnit.MILLISECONDS);
+            if (next == MISSED) {
+                return null;
+            }
+            return next != null ? next : Collections.<String>emptyList();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        feed = new FakeChangeFeed();
+        cache = mock(MongoExperimentsCache.class);
+        watcher = new ExperimentsWatcher(feed, cache);
+        watcher.start();
+    }
+
+    @After
+    public void tearDown() {
+        watcher.close();
+    }
+
+    @Test
+    public void testChangesAreApplied() {
+        feed.change("foo");
+        feed.change("bar", "baz");
+
+        verify(cache, timeout(TIMEOUT_MILLIS)).reload(ImmutableList.of("foo"));
+        verify(cache, timeout(TIMEOUT_MILLIS)).reload(ImmutableList.of("bar", "baz"));
+        verify(cache, never()).reloadAll();
+    }
+
+    @Test
+    public void testMissedChangesReloadAll() {
+        feed.miss();
+        verify(cache, timeout(TIMEOUT_MILLIS)).reloadAll();
+    }
+
+    @Test
+    public void testContinuesAfterFailure() {
+        doThrow(new IllegalStateException("failed")).when(cache).reload(ImmutableList.of("foo"));
+        feed.change("foo");
+        feed.change("bar");
+
+        verify(cache, timeout(TIMEOUT_MILLIS)).reload(ImmutableList.of("foo"));
+        verify(cache, timeout(TIMEOUT_MILLIS * 3)).reload(ImmutableList.of("bar"));
+    }
+
+    @Test
+    public void testCloseClosesFeed() {
+        watcher.close();
+        assertTrue(feed.closed);
+    }
+}
@@ -0,0 +1,149 @@
+package io.rtr.alchemy.db.mongo;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+import io.rtr.alchemy.db.mongo.models.ExperimentEntity;
+import io.rtr.alchemy.filtering.FilterExpression;
+import io.rtr.alchemy.models.EvaluationPlan;
+import io.rtr.alchemy.models.Experiment;
+import org.junit.Before;
+import org.junit.Test;
+import org.mongodb.morphia.AdvancedDatastore;
+import org.mongodb.morphia.query.FieldEnd;
+import org.mongodb.morphia.query.Query;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class MongoExperimentsCacheTest {
+    private AdvancedDatastore ds;
+    private RevisionManager revisionManager;
+    private Query experimentsQuery;
+    private FieldEnd experimentsField;
+    private Experiment.BuilderFactory factory;
+    private MongoExperimentsCache cache;
+
+    @Before
+    public void setUp() {
+        ds = mock(AdvancedDatastore.class);
+        revisionManager = mock(RevisionManager.class);
+        factory = mock(Experiment.BuilderFactory.class);
+        experimentsQuery = mock(Query.class);
+        experimentsField = mock(FieldEnd.class);
+
+        doReturn(experimentsQuery).when(ds).find(ExperimentEntity.class);
+        doReturn(experimentsField).when(experimentsQuery).field(any(String.class));
+        doReturn(experimentsQuery).when(experimentsField).equal(any());
+        doReturn(experimentsQuery).when(experimentsField).in(any(Iterable.class));
+
+        cache = new MongoExperimentsCache(ds, revisionManager);
+    }
+
+    private ExperimentEntity entity(String name, boolean active, long revision) {
+        final ExperimentEntity entity = mock(ExperimentEntity.class);
+        final Experiment experiment = mock(Experiment.class);
+        entity.name = name;
+        entity.active = active;
+        entity.revision = revision;
+        doReturn(name).when(experiment).getName();
+        doReturn(active).when(experiment).isActive();
+        doReturn(FilterExpression.alwaysTrue()).when(experiment).getFilter();
+        doReturn(experiment).when(entity).toExperiment(any(Experiment.Builder.class));
+        return entity;
+    }
+
+    private void returnExperiments(ExperimentEntity ... entities) {
+        doReturn(Iterators.forArray(entities)).when(experimentsQuery).iterator();
+    }
+
+    private void returnRevisions(long currentRevision, Map<String, Long> revisions) {
+        doReturn(currentRevision).when(revisionManager).getCurrentRevision();
+        doReturn(revisions).when(revisionManager).getExperimentRevisions();
+    }
+
+    @Test
+    public void testInvalidateAllLoadsEverythingFirst() {
+        returnRevisions(3, ImmutableMap.of("foo", 1L, "bar", 2L, "baz", 3L));
+        returnExperiments(entity("foo", true, 1), entity("bar", true, 2));
+        cache.invalidateAll(factory);
+
+        assertEquals(ImmutableSet.of("foo", "bar"), cache.getActiveExperiments().keySet());
+        assertEquals(2, cache.getEvaluationPlan().size());
+        verify(experimentsField).equal(true);
+        verify(experimentsField, never()).in(any(Iterable.class));
+        verify(revisionManager).setLatestRevision(3L);
+    }
+
+    @Test
+    public void testInvalidateAllLoadsChangedExperiments() {
+        returnRevisions(4, ImmutableMap.of("foo", 1L, "bar", 2L, "qux", 3L, "quux", 4L));
+        returnExperiments(entity("foo", true, 1), entity("bar", true, 2), entity("qux", true, 3));
+        cache.invalidateAll(factory);
+
+        // baz was added, foo deactivated, bar deleted, and neither qux nor the inactive quux changed
+        returnRevisions(8, ImmutableMap.of("foo", 6L, "baz", 7L, "qux", 3L, "quux", 4L));
+        returnExperiments(entity("baz", true, 7), entity("foo", false, 6));
+        cache.invalidateAll(factory);
+
+        assertEquals(ImmutableSet.of("baz", "qux"), cache.getActiveExperiments().keySet());
+        assertEquals(2, cache.getEvaluationPlan().size());
+        verify(experimentsField).in(eq(ImmutableSet.of("foo", "bar", "baz")));
+        verify(revisionManager).setLatestRevision(eq(8L));
+    }
+
+    @Test
+    public void testInvalidateAllWithoutChanges() {
+        returnRevisions(2, ImmutableMap.of("foo", 1L, "bar", 2L));
+        returnExperiments(entity("foo", true, 1), entity("bar", true, 2));
+        cache.invalidateAll(factory);
+
+        final EvaluationPlan plan = cache.getEvaluationPlan();
+        cache.invalidateAll(factory);
+
+        assertSame("nothing should be published when nothing changed", plan, cache.getEvaluationPlan());
+        verify(experimentsField, never()).in(any(Iterable.class));
+    }
+
+    @Test
+    public void testSnapshotsAreNotChanged() {
+        returnRevisions(2, ImmutableMap.of("foo", 1L, "bar", 2L));
+        returnExperiments(entity("foo", true, 1), entity("bar", true, 2));
+        cache.invalidateAll(factory);
+
+        final Map<String, Experiment> snapshot = cache.getActiveExperiments();
+        final EvaluationPlan plan = cache.getEvaluationPlan();
+        cache.delete("foo");
+        cache.update(entity("baz", true, 3).toExperiment(null));
+
+        assertEquals(ImmutableSet.of("foo", "bar"), snapshot.keySet());
+        assertEquals(2, plan.size());
+        assertNotNull(plan.getExperiment("foo"));
+        assertEquals(ImmutableSet.of("bar", "baz"), cache.getActiveExperiments().keySet());
+        assertNull(cache.getEvaluationPlan().getExperiment("foo"));
+    }
+
+    @Test
+    public void testReload() {
+        returnRevisions(2, ImmutableMap.of("foo", 1L, "bar", 2L));
+        returnExperiments(entity("foo", true, 1), entity("bar", true, 2));
+        cache.invalidateAll(factory);
+
+        final ExperimentEntity baz = entity("baz", true, 3);
+        doReturn(baz).when(ds).get(ExperimentEntity.class, "baz");
+        cache.reload(ImmutableSet.of("foo", "baz"));
+
+        assertEquals(ImmutableSet.of("bar", "baz"), cache.getActiveExperiments().keySet());
+        assertEquals(2, cache.getEvaluationPlan().size());
+    }
+}
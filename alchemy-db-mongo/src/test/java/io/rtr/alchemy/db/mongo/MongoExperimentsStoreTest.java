@@ -0,0 +1,128 @@
+package io.rtr.alchemy.db.mongo;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.rtr.alchemy.db.mongo.models.ExperimentEntity;
+import io.rtr.alchemy.db.mongo.models.MetadataEntity;
+import io.rtr.alchemy.filtering.FilterExpression;
+import io.rtr.alchemy.models.Experiment;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.mongodb.morphia.AdvancedDatastore;
+import org.mongodb.morphia.query.FieldEnd;
+import org.mongodb.morphia.query.Query;
+import org.mongodb.morphia.query.UpdateOperations;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+public class MongoExperimentsStoreTest {
+    private AdvancedDatastore ds;
+    private long revision;
+    // the revision of every experiment stored
+    private Map<String, Long> stored;
+    private Experiment.BuilderFactory factory;
+    private MongoExperimentsCache cache;
+    private MongoExperimentsStore store;
+
+    @Before
+    public void setUp() {
+        revision = Long.MIN_VALUE;
+        stored = Maps.newHashMap();
+        ds = mock(AdvancedDatastore.class);
+        factory = mock(Experiment.BuilderFactory.class);
+
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                return MetadataEntity.of("revision", revision);
+            }
+        }).when(ds).get(eq(MetadataEntity.class), anyString());
+
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                return MetadataEntity.of("revision", ++revision);
+            }
+        }).when(ds).findAndModify(any(Query.class), any(UpdateOperations.class));
+
+        final Query metadataQuery = mock(Query.class);
+        final FieldEnd metadataField = mock(FieldEnd.class);
+        final UpdateOperations updateOperations = mock(UpdateOperations.class);
+        doReturn(metadataQuery).when(ds).createQuery(any(Class.class));
+        doReturn(metadataField).when(metadataQuery).field(anyString());
+        doReturn(metadataQuery).when(metadataField).equal(any());
+        doReturn(updateOperations).when(ds).createUpdateOperations(any(Class.class));
+        doReturn(updateOperations).when(updateOperations).inc(anyString());
+
+        // every query for experiments returns the stored experiments, as inactive experiments
+        final Query experimentsQuery = mock(Query.class);
+        final FieldEnd experimentsField = mock(FieldEnd.class);
+        doReturn(experimentsQuery).when(ds).find(ExperimentEntity.class);
+        doReturn(experimentsField).when(experimentsQuery).field(anyString());
+        doReturn(experimentsQuery).when(experimentsField).equal(any());
+        doReturn(experimentsQuery).when(experimentsField).greaterThanOrEq(any());
+        doReturn(experimentsQuery).when(experimentsField).in(any(Iterable.class));
+        doReturn(experimentsQuery).when(experimentsQuery).retrievedFields(anyBoolean(), Matchers.<String>anyVararg());
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                final List<ExperimentEntity> entities = Lists.newArrayList();
+                for (final Map.Entry<String, Long> experiment : stored.entrySet()) {
+                    final ExperimentEntity entity = mock(ExperimentEntity.class);
+                    entity.name = experiment.getKey();
+                    entity.revision = experiment.getValue();
+                    entities.add(entity);
+                }
+                return entities.iterator();
+            }
+        }).when(experimentsQuery).iterator();
+
+        final RevisionManager revisionManager = new RevisionManager(ds);
+        cache = new MongoExperimentsCache(ds, revisionManager);
+        store = new MongoExperimentsStore(ds, revisionManager);
+    }
+
+    private Experiment experiment(String name) {
+        final Experiment experiment = mock(Experiment.class);
+        doReturn(name).when(experiment).getName();
+        doReturn(FilterExpression.alwaysTrue()).when(experiment).getFilter();
+        return experiment;
+    }
+
+    @Test
+    public void testSaveWhileCacheLoadsIsNotMissed() {
+        cache.invalidateAll(factory);
+        assertFalse(cache.checkIfAnyStale());
+
+        // the cache reads the latest revision after the experiment's revision was taken, but before it was stored
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                final ExperimentEntity entity = (ExperimentEntity) invocation.getArguments()[0];
+                cache.invalidateAll(factory);
+                stored.put(entity.name, entity.revision);
+                return null;
+            }
+        }).when(ds).save(any(ExperimentEntity.class));
+
+        store.save(experiment("foo"));
+        assertTrue("an experiment stored while the cache was loading should leave it stale", cache.checkIfAnyStale());
+
+        cache.invalidateAll(factory);
+        assertFalse(cache.checkIfAnyStale());
+    }
+}
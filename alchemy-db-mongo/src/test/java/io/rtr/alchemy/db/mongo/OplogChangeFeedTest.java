@@ -0,0 +1,127 @@
+package io.rtr.alchemy.db.mongo;
+
+import com.google.common.collect.ImmutableList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DB;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.MongoClient;
+import org.bson.types.BSONTimestamp;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class OplogChangeFeedTest {
+    private static final String NAMESPACE = "alchemy.Experiments";
+    private DBCollection oplog;
+    private DBCursor earliestCursor;
+    private DBCursor latestCursor;
+    private DBCursor tailCursor;
+    private OplogChangeFeed feed;
+
+    @Before
+    public void setUp() {
+        final MongoClient client = mock(MongoClient.class);
+        final DB local = mock(DB.class);
+        final DBCollection experiments = mock(DBCollection.class);
+        final DBCursor timestampCursor = mock(DBCursor.class);
+        oplog = mock(DBCollection.class);
+        earliestCursor = mock(DBCursor.class);
+        latestCursor = mock(DBCursor.class);
+        tailCursor = mock(DBCursor.class);
+
+        doReturn(local).when(client).getDB("local");
+        doReturn(oplog).when(local).getCollection("oplog.rs");
+        doReturn(NAMESPACE).when(experiments).getFullName();
+
+        doReturn(timestampCursor).when(oplog).find();
+        doReturn(earliestCursor).when(timestampCursor).sort(eq(new BasicDBObject("$natural", 1)));
+        doReturn(latestCursor).when(timestampCursor).sort(eq(new BasicDBObject("$natural", -1)));
+        doReturn(earliestCursor).when(earliestCursor).limit(1);
+        doReturn(latestCursor).when(latestCursor).limit(1);
+        doReturn(tailCursor).when(oplog).find(any(DBObject.class));
+        doReturn(tailCursor).when(tailCursor).addOption(anyInt());
+        doReturn(1L).when(tailCursor).getCursorId();
+
+        setOplog(1, 10);
+        feed = new OplogChangeFeed(client, experiments);
+    }
+
+    private static BSONTimestamp timestamp(int time) {
+        return new BSONTimestamp(time, 0);
+    }
+
+    // sets the timestamps of the first and last entries of the oplog
+    private void setOplog(int earliest, int latest) {
+        doReturn(true).when(earliestCursor).hasNext();
+        doReturn(new BasicDBObject("ts", timestamp(earliest))).when(earliestCursor).next();
+        doReturn(true).when(latestCursor).hasNext();
+        doReturn(new BasicDBObject("ts", timestamp(latest))).when(latestCursor).next();
+    }
+
+    private static DBObject entry(int time, String operation, String experimentName) {
+        return
+            new BasicDBObject("ts", timestamp(time))
+                .append("ns", NAMESPACE)
+                .append("op", operation)
+                .append("o", new BasicDBObject("_id", experimentName));
+    }
+
+    // the timestamp after which the last cursor opened was tailing the oplog
+    private BSONTimestamp getLastQueriedPosition() {
+        final ArgumentCaptor<DBObject> query = ArgumentCaptor.forClass(DBObject.class);
+        verify(oplog, atLeastOnce()).find(query.capture());
+        return (BSONTimestamp) ((DBObject) query.getValue().get("ts")).get("$gt");
+    }
+
+    @Test
+    public void testReturnsChangedExperiments() throws InterruptedException {
+        doReturn(entry(11, "i", "foo")).when(tailCursor).tryNext();
+        assertEquals(ImmutableList.of("foo"), feed.nextChanges());
+        assertEquals(timestamp(10), getLastQueriedPosition());
+
+        doReturn(null).when(tailCursor).tryNext();
+        assertTrue(feed.nextChanges().isEmpty());
+    }
+
+    @Test
+    public void testMissedChanges() throws InterruptedException {
+        setOplog(11, 20);
+        doReturn(null).when(tailCursor).tryNext();
+        assertNull("changes since the position was overwritten should be reported as missed", feed.nextChanges());
+    }
+
+    @Test
+    public void testDeadCursorAdvancesToHead() throws InterruptedException {
+        // other collections were written to, and nothing matched the cursor
+        setOplog(1, 20);
+        doReturn(null).when(tailCursor).tryNext();
+        doReturn(0L).when(tailCursor).getCursorId();
+
+        final long start = System.currentTimeMillis();
+        assertTrue(feed.nextChanges().isEmpty());
+        assertTrue(
+            "a dead cursor should not be reopened right away",
+            System.currentTimeMillis() - start >= OplogChangeFeed.REOPEN_DELAY_MILLIS
+        );
+        verify(tailCursor).close();
+
+        // the oplog rolled over past the position the feed was created at, but not past its head
+        setOplog(15, 30);
+        doReturn(1L).when(tailCursor).getCursorId();
+        assertTrue("changes should not be missed once the feed has moved up to the head", feed.nextChanges().isEmpty());
+        assertEquals(timestamp(20), getLastQueriedPosition());
+    }
+}
@@ -1,24 +1,33 @@
 package io.rtr.alchemy.db.mongo;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
 import io.rtr.alchemy.db.mongo.models.ExperimentEntity;
 import io.rtr.alchemy.db.mongo.models.MetadataEntity;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Matchers;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.mongodb.morphia.AdvancedDatastore;
+import org.mongodb.morphia.mapping.Mapper;
 import org.mongodb.morphia.query.FieldEnd;
 import org.mongodb.morphia.query.Query;
 import org.mongodb.morphia.query.UpdateOperations;
 
+import java.util.Map;
+
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.times;
@@ -27,6 +36,8 @@ import static org.mockito.Mockito.verify;
 public class RevisionManagerTest {
     private AdvancedDatastore ds;
     private UpdateOperations updateOperations;
+    private Query experimentQuery;
+    private FieldEnd experimentField;
     private long revision;
 
     @Before
@@ -56,6 +67,21 @@ public class RevisionManagerTest {
         doReturn(query).when(ds).createQuery(any(Class.class));
         doReturn(updateOperations).when(ds).createUpdateOperations(any(Class.class));
         doReturn(updateOperations).when(updateOperations).inc(anyString());
+
+        experimentQuery = mock(Query.class);
+        experimentField = mock(FieldEnd.class);
+        doReturn(experimentQuery).when(ds).find(eq(ExperimentEntity.class), anyString(), any());
+        doReturn(experimentQuery).when(ds).find(ExperimentEntity.class);
+        doReturn(experimentField).when(experimentQuery).field(anyString());
+        doReturn(experimentQuery).when(experimentField).greaterThanOrEq(any());
+        doReturn(experimentQuery).when(experimentQuery).retrievedFields(anyBoolean(), Matchers.<String>anyVararg());
+    }
+
+    private ExperimentEntity experiment(String name, long revision) {
+        final ExperimentEntity entity = mock(ExperimentEntity.class);
+        entity.name = name;
+        entity.revision = revision;
+        return entity;
     }
 
     private void makeInsertSetRevision() {
@@ -94,7 +120,9 @@ public class RevisionManagerTest {
     public void testCheckIfStale() {
         final RevisionManager revisionManager = new RevisionManager(ds);
         revisionManager.checkIfStale("foo");
-        verify(ds).get(eq(ExperimentEntity.class), eq("foo"));
+        verify(ds).find(eq(ExperimentEntity.class), eq(Mapper.ID_KEY), eq("foo"));
+        verify(experimentQuery).retrievedFields(eq(true), eq(ExperimentEntity.FIELD_REVISION));
+        verify(ds, never()).get(eq(ExperimentEntity.class), anyString());
     }
 
     @Test
@@ -107,14 +135,7 @@ public class RevisionManagerTest {
     @Test
     public void testSetLatestRevision() {
         // our experiment will always be at revision Long.MIN_VALUE + 1
-        doAnswer(new Answer() {
-            @Override
-            public Object answer(InvocationOnMock invocation) throws Throwable {
-                final ExperimentEntity entity = mock(ExperimentEntity.class);
-                entity.revision = Long.MIN_VALUE + 1;
-                return entity;
-            }
-        }).when(ds).get(eq(ExperimentEntity.class), anyString());
+        doReturn(experiment("foo", Long.MIN_VALUE + 1)).when(experimentQuery).get();
 
         final RevisionManager revisionManager = new RevisionManager(ds);
 
@@ -130,4 +151,23 @@ public class RevisionManagerTest {
         revisionManager.setLatestRevision(Long.MIN_VALUE + 1); // revision manager's internal revision
         assertFalse(revisionManager.checkIfStale("foo"));
     }
+
+    @Test
+    public void testGetExperimentRevisions() {
+        doReturn(Iterators.forArray(experiment("foo", 1), experiment("bar", 2))).when(experimentQuery).iterator();
+
+        final RevisionManager revisionManager = new RevisionManager(ds);
+        assertEquals(ImmutableMap.of("foo", 1L, "bar", 2L), revisionManager.getExperimentRevisions());
+        verify(experimentQuery).retrievedFields(eq(true), eq(ExperimentEntity.FIELD_REVISION));
+        verify(ds, never()).get(eq(ExperimentEntity.class), anyString());
+    }
+
+    @Test
+    public void testGetChangedExperiments() {
+        final Map<String, Long> known = ImmutableMap.of("foo", 1L, "bar", 2L, "baz", 3L);
+        final Map<String, Long> current = ImmutableMap.of("foo", 1L, "bar", 4L, "qux", 5L);
+
+        assertEquals(ImmutableSet.of("bar", "baz", "qux"), RevisionManager.getChangedExperiments(known, current));
+        assertEquals(ImmutableSet.<String>of(), RevisionManager.getChangedExperiments(known, known));
+    }
 }
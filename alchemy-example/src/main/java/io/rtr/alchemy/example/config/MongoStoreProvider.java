@@ -26,15 +26,19 @@ public class MongoStoreProvider extends StoreProviderConfiguration {
 
     private final String password;
 
+    private final boolean watchChanges;
+
     @JsonCreator
     public MongoStoreProvider(@JsonProperty("hosts") List<HostAndPort> hosts,
                               @JsonProperty("db") String db,
                               @JsonProperty("username") String username,
-                              @JsonProperty("password") String password) {
+                              @JsonProperty("password") String password,
+                              @JsonProperty("watchChanges") boolean watchChanges) {
         this.hosts = hosts;
         this.db = db;
         this.username = username;
         this.password = password;
+        this.watchChanges = watchChanges;
     }
 
     public List<HostAndPort> getHosts() {
@@ -53,6 +57,10 @@ public class MongoStoreProvider extends StoreProviderConfiguration {
         return password;
     }
 
+    public boolean getWatchChanges() {
+        return watchChanges;
+    }
+
     @Override
     public ExperimentsStoreProvider createProvider() throws UnknownHostException {
         final io.rtr.alchemy.db.mongo.MongoStoreProvider.Builder builder = io.rtr.alchemy.db.mongo.MongoStoreProvider.newBuilder();
@@ -69,6 +77,7 @@ public class MongoStoreProvider extends StoreProviderConfiguration {
         }
 
         builder.setDatabase(db);
+        builder.setWatchChanges(watchChanges);
 
         return builder.build();
     }
@@ -0,0 +1,37 @@
+package io.rtr.alchemy.example.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.rtr.alchemy.caching.CacheStrategy;
+import io.rtr.alchemy.service.config.CacheStrategyConfiguration;
+import io.dropwizard.util.Duration;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotNull;
+
+public class ScheduledRefreshCacheStrategy extends CacheStrategyConfiguration {
+    @NotNull
+    @JsonProperty
+    private Duration duration;
+
+    @DecimalMin("0")
+    @DecimalMax("0.99")
+    @JsonProperty
+    private double jitter = 0.1;
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    @Override
+    public CacheStrategy createStrategy() {
+        return new io.rtr.alchemy.caching.ScheduledRefreshCacheStrategy(
+            org.joda.time.Duration.millis(duration.toMilliseconds()),
+            jitter
+        );
+    }
+}
@@ -8,6 +8,7 @@ import io.rtr.alchemy.service.config.IdentityMapping;
 import io.rtr.alchemy.service.exceptions.RuntimeExceptionMapper;
 import io.rtr.alchemy.service.guice.AlchemyModule;
 import io.rtr.alchemy.service.health.ExperimentsDatabaseProviderCheck;
+import io.rtr.alchemy.service.metrics.FilterExpressionCacheMetrics;
 import io.rtr.alchemy.service.metrics.JmxMetricsManaged;
 import io.rtr.alchemy.service.resources.ActiveTreatmentsResource;
 import io.rtr.alchemy.service.resources.AllocationsResource;
@@ -50,6 +51,7 @@ public abstract class AlchemyService<T extends Configuration & AlchemyServiceCon
 
         environment.jersey().register(new RuntimeExceptionMapper());
         environment.lifecycle().manage(new JmxMetricsManaged(environment));
+        environment.metrics().registerAll(new FilterExpressionCacheMetrics());
         registerIdentitySubTypes(configuration, environment);
     }
 
@@ -84,7 +84,10 @@ public class AlchemyModule extends AbstractModule implements Managed {
     }
 
     private Experiments buildExperiments() {
-        final Experiments.Builder builder = Experiments.using(provider);
+        final Experiments.Builder builder =
+            Experiments
+                .using(provider)
+                .identities(configuration.getIdentities().keySet());
         if (configuration.getCacheStrategy() != null) {
             builder.using(configuration.getCacheStrategy().createStrategy());
         }
@@ -91,6 +91,8 @@ public class CoreMappings {
                     return new ExperimentDto(
                         experiment.getName(),
                         experiment.getSeed(),
+                        experiment.getBins(),
+                        experiment.getHashVersion(),
                         experiment.getDescription(),
                         experiment.getFilter() != null ? experiment.getFilter().toString() : null,
                         experiment.getHashAttributes() != null ? Sets.newLinkedHashSet(experiment.getHashAttributes()) : null,
@@ -0,0 +1,53 @@
+package io.rtr.alchemy.service.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricSet;
+import com.google.common.collect.ImmutableMap;
+import io.rtr.alchemy.filtering.FilterExpression;
+
+import java.util.Map;
+
+/**
+ * Reports statistics of the cache of compiled filter expressions, which is shared across experiment reloads
+ */
+public class FilterExpressionCacheMetrics implements MetricSet {
+    private static final String PREFIX = MetricRegistry.name(FilterExpression.class, "cache");
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        return ImmutableMap.<String, Metric>of(
+            MetricRegistry.name(PREFIX, "hits"), new Gauge<Long>() {
+                @Override
+                public Long getValue() {
+                    return FilterExpression.getCacheStats().hitCount();
+                }
+            },
+            MetricRegistry.name(PREFIX, "misses"), new Gauge<Long>() {
+                @Override
+                public Long getValue() {
+                    return FilterExpression.getCacheStats().missCount();
+                }
+            },
+            MetricRegistry.name(PREFIX, "hit-rate"), new Gauge<Double>() {
+                @Override
+                public Double getValue() {
+                    return FilterExpression.getCacheStats().hitRate();
+                }
+            },
+            MetricRegistry.name(PREFIX, "evictions"), new Gauge<Long>() {
+                @Override
+                public Long getValue() {
+                    return FilterExpression.getCacheStats().evictionCount();
+                }
+            },
+            MetricRegistry.name(PREFIX, "average-load-nanos"), new Gauge<Double>() {
+                @Override
+                public Double getValue() {
+                    return FilterExpression.getCacheStats().averageLoadPenalty();
+                }
+            }
+        );
+    }
+}
@@ -1,23 +1,45 @@
 package io.rtr.alchemy.service.resources;
 
 import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Predicates;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.inject.Inject;
 import io.rtr.alchemy.dto.identities.IdentityDto;
 import io.rtr.alchemy.dto.models.TreatmentDto;
 import io.rtr.alchemy.identities.Identity;
 import io.rtr.alchemy.mapping.Mappers;
+import io.rtr.alchemy.models.EvaluationPlan;
 import io.rtr.alchemy.models.Experiment;
 import io.rtr.alchemy.models.Experiments;
 import io.rtr.alchemy.models.Treatment;
+import io.rtr.alchemy.models.TreatmentMatrix;
+import io.dropwizard.setup.Environment;
 
 import javax.validation.Valid;
+import javax.validation.Validator;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -27,11 +49,19 @@ import java.util.Map;
 @Consumes(MediaType.APPLICATION_JSON)
 @Produces(MediaType.APPLICATION_JSON)
 public class ActiveTreatmentsResource extends BaseResource {
+    // the number of identities evaluated together while streaming a batch
+    static final int BATCH_SIZE = 100;
+    // written in place of the treatments of an identity which is invalid, once the response has started
+    private static final String INVALID_IDENTITY = "invalid identity";
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
     private final Experiments experiments;
     private final Mappers mapper;
 
     @Inject
-    public ActiveTreatmentsResource(Experiments experiments, Mappers mapper) {
+    public ActiveTreatmentsResource(Environment environment, Experiments experiments, Mappers mapper) {
+        this.objectMapper = environment.getObjectMapper();
+        this.validator = environment.getValidator();
         this.experiments = experiments;
         this.mapper = mapper;
     }
@@ -53,11 +83,147 @@ public class ActiveTreatmentsResource extends BaseResource {
     @POST
     @Timed
     @Path("/treatments")
-    public Map<String, TreatmentDto> getActiveTreatments(@Valid IdentityDto identityDto) {
-        final Map<String, TreatmentDto> treatments = Maps.newHashMap();
-        final Map<Experiment, Treatment> activeTreatments = experiments.getActiveTreatments(
-            mapper.fromDto(identityDto, Identity.class)
+    public Map<String, TreatmentDto> getActiveTreatments(@QueryParam("experiment") List<String> experimentNames,
+                                                         @Valid IdentityDto identityDto) {
+        final Identity identity = mapper.fromDto(identityDto, Identity.class);
+
+        // only the named experiments are evaluated, when any are named
+        return toDtos(
+            experimentNames.isEmpty() ?
+                experiments.getActiveTreatments(identity) :
+                experiments.getActiveTreatments(identity, experimentNames)
         );
+    }
+
+    /**
+     * Returns the active treatments of each of a list of identities, in the same order.  Identities are read from the
+     * request and their treatments written to the response a batch at a time, so that memory use does not depend on
+     * the number of identities, and every batch is evaluated against the experiments that were active when the request
+     * started.  The first batch is read and validated before responding, so that a request which is malformed or has
+     * an invalid identity in it is rejected as a bad request.  After that, an invalid identity is answered with a
+     * string describing the error in place of its treatments, and a request which turns out to be malformed is answered
+     * with such a string after the treatments of the identities read before it, which ends the response
+     */
+    @POST
+    @Timed
+    @Path("/treatments/batch")
+    public StreamingOutput getActiveTreatmentsBatch(InputStream identities) throws IOException {
+        final JsonParser parser = objectMapper.getFactory().createParser(identities);
+        boolean streaming = false;
+
+        try {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new WebApplicationException(Response.Status.BAD_REQUEST);
+            }
+
+            final EvaluationPlan plan = experiments.getEvaluationPlan();
+            final List<Identity> batch = Lists.newArrayListWithCapacity(BATCH_SIZE);
+            final boolean ended = readBatch(parser, batch, true);
+            final StreamingOutput response = new StreamingOutput() {
+                @Override
+                public void write(OutputStream output) throws IOException {
+                    try (final JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                        generator.writeStartArray();
+                        writeBatch(generator, plan, batch);
+
+                        boolean end = ended;
+                        while (!end) {
+                            try {
+                                end = readBatch(parser, batch, false);
+                            } catch (final JsonProcessingException e) {
+                                writeBatch(generator, plan, batch);
+                                generator.writeString(
+                                    String.format("malformed identities: %s", e.getOriginalMessage())
+                                );
+                                break;
+                            }
+                            writeBatch(generator, plan, batch);
+                        }
+
+                        generator.writeEndArray();
+                    } finally {
+                        parser.close();
+                    }
+                }
+            };
+
+            streaming = true;
+            return response;
+        } catch (final JsonProcessingException e) {
+            throw new WebApplicationException(e, Response.Status.BAD_REQUEST);
+        } finally {
+            if (!streaming) {
+                parser.close();
+            }
+        }
+    }
+
+    /**
+     * Reads identities until the batch is full or the array ends, returning whether the array ended.  An identity
+     * which cannot be mapped or is invalid fails the request as a bad request when rejecting invalid identities, and is
+     * added to the batch as null otherwise
+     */
+    private boolean readBatch(JsonParser parser, List<Identity> batch, boolean rejectInvalid) throws IOException {
+        while (batch.size() < BATCH_SIZE) {
+            final JsonToken token = parser.nextToken();
+            if (token == JsonToken.END_ARRAY) {
+                return true;
+            }
+
+            if (token == null) {
+                throw new JsonParseException(
+                    "identities ended before the end of the array",
+                    parser.getCurrentLocation()
+                );
+            }
+
+            // each identity is read as a tree first, so that one which cannot be mapped does not stop the rest
+            final JsonNode node = parser.readValueAsTree();
+            final Identity identity = toIdentity(node);
+            if (identity == null && rejectInvalid) {
+                throw new WebApplicationException(Response.Status.BAD_REQUEST);
+            }
+
+            batch.add(identity);
+        }
+
+        return false;
+    }
+
+    private Identity toIdentity(JsonNode node) {
+        final IdentityDto identity;
+        try {
+            identity = objectMapper.treeToValue(node, IdentityDto.class);
+        } catch (final JsonProcessingException e) {
+            return null;
+        }
+
+        if (identity == null || !validator.validate(identity).isEmpty()) {
+            return null;
+        }
+
+        return mapper.fromDto(identity, Identity.class);
+    }
+
+    private void writeBatch(JsonGenerator generator, EvaluationPlan plan, List<Identity> batch) throws IOException {
+        final TreatmentMatrix treatments =
+            experiments.getActiveTreatments(plan, Iterables.filter(batch, Predicates.notNull()));
+
+        int row = 0;
+        for (final Identity identity : batch) {
+            if (identity == null) {
+                generator.writeString(INVALID_IDENTITY);
+            } else {
+                objectMapper.writeValue(generator, toDtos(treatments.getActiveTreatments(row++)));
+            }
+        }
+
+        batch.clear();
+        generator.flush();
+    }
+
+    private Map<String, TreatmentDto> toDtos(Map<Experiment, Treatment> activeTreatments) {
+        final Map<String, TreatmentDto> treatments = Maps.newHashMap();
 
         for (final Map.Entry<Experiment, Treatment> entry : activeTreatments.entrySet()) {
             treatments.put(entry.getKey().getName(), mapper.toDto(entry.getValue(), TreatmentDto.class));
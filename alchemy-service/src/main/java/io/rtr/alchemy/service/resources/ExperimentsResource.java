@@ -84,6 +84,14 @@ public class ExperimentsResource extends BaseResource {
             experiment.setSeed(request.getSeed());
         }
 
+        if (request.getBins() != null) {
+            experiment.setBins(request.getBins());
+        }
+
+        if (request.getHashVersion() != null) {
+            experiment.setHashVersion(request.getHashVersion());
+        }
+
         if (request.getTreatments() != null) {
             for (final TreatmentDto treatment : request.getTreatments()) {
                 experiment.addTreatment(treatment.getName(), treatment.getDescription());
@@ -125,6 +133,10 @@ public class ExperimentsResource extends BaseResource {
             experiment.setSeed(request.getSeed().or(0));
         }
 
+        if (request.getHashVersion() != null && request.getHashVersion().isPresent()) {
+            experiment.setHashVersion(request.getHashVersion().get());
+        }
+
         if (request.getDescription() != null) {
             experiment.setDescription(request.getDescription().orNull());
         }
@@ -164,7 +176,14 @@ public class ExperimentsResource extends BaseResource {
 
         if (request.getAllocations() != null) {
             experiment.deallocateAll();
+        }
 
+        // the number of bins can only change while nothing is allocated
+        if (request.getBins() != null && request.getBins().isPresent()) {
+            experiment.setBins(request.getBins().get());
+        }
+
+        if (request.getAllocations() != null) {
             if (request.getAllocations().isPresent()) {
                 for (final AllocateRequest allocation : request.getAllocations().get()) {
                     experiment.allocate(allocation.getTreatment(), allocation.getSize());
@@ -1,19 +1,27 @@
 package io.rtr.alchemy.service.resources;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.sun.jersey.api.client.GenericType;
+import io.rtr.alchemy.dto.identities.Identities;
+import io.rtr.alchemy.dto.identities.IdentityDto;
 import io.rtr.alchemy.dto.models.TreatmentDto;
 import org.junit.Before;
 import org.junit.Test;
 
 import javax.ws.rs.core.Response.Status;
 
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class ActiveTreatmentsResourceTest extends ResourceTest {
     private static final String ENDPOINT_ACTIVE_TREATMENT = "/active/experiments/{experimentName}/treatment";
     private static final String ENDPOINT_ACTIVE_TREATMENTS = "/active/treatments";
+    private static final String ENDPOINT_ACTIVE_TREATMENTS_BATCH = "/active/treatments/batch";
     private UserDto userDto;
     private User user;
     private DeviceDto deviceDto;
@@ -85,4 +93,92 @@ public class ActiveTreatmentsResourceTest extends ResourceTest {
 
         assertEquals(expected, actual);
     }
+
+    @Test
+    public void testGetActiveTreatmentsSubset() {
+        final Map<String, TreatmentDto> expected = ImmutableMap.of(
+            EXPERIMENT_1, MAPPER.toDto(experiment(EXPERIMENT_1).getTreatment(user, user.computeAttributes()), TreatmentDto.class)
+        );
+
+        final Map<String, TreatmentDto> actual =
+            post(ENDPOINT_ACTIVE_TREATMENTS + "?experiment=" + EXPERIMENT_1 + "&experiment=" + EXPERIMENT_2)
+                .entity(userDto)
+                .assertStatus(Status.OK)
+                .result(map(String.class, TreatmentDto.class));
+
+        assertEquals(expected, actual);
+
+        final Map<String, TreatmentDto> none =
+            post(ENDPOINT_ACTIVE_TREATMENTS + "?experiment=" + EXPERIMENT_2)
+                .entity(userDto)
+                .assertStatus(Status.OK)
+                .result(map(String.class, TreatmentDto.class));
+
+        assertEquals(ImmutableMap.<String, TreatmentDto>of(), none);
+    }
+
+    @Test
+    public void testGetActiveTreatmentsBatch() {
+        final List<Map<String, TreatmentDto>> expected = ImmutableList.<Map<String, TreatmentDto>>of(
+            ImmutableMap.of(
+                EXPERIMENT_1,
+                MAPPER.toDto(experiment(EXPERIMENT_1).getTreatment(user, user.computeAttributes()), TreatmentDto.class)
+            ),
+            ImmutableMap.of(
+                EXPERIMENT_2,
+                MAPPER.toDto(experiment(EXPERIMENT_2).getTreatment(device, device.computeAttributes()), TreatmentDto.class)
+            ),
+            ImmutableMap.<String, TreatmentDto>of()
+        );
+
+        final List<Map<String, TreatmentDto>> actual =
+            post(ENDPOINT_ACTIVE_TREATMENTS_BATCH)
+                .entity(Identities.of(userDto, deviceDto, new UserDto(null)))
+                .assertStatus(Status.OK)
+                .result(new GenericType<List<Map<String, TreatmentDto>>>() { });
+
+        assertEquals(expected, actual);
+
+        post(ENDPOINT_ACTIVE_TREATMENTS_BATCH)
+            .entity(userDto)
+            .assertStatus(Status.BAD_REQUEST);
+    }
+
+    @Test
+    public void testGetActiveTreatmentsBatchRejectsInvalidIdentities() {
+        // unknown identity type
+        post(ENDPOINT_ACTIVE_TREATMENTS_BATCH)
+            .entity("[{\"type\": \"user\", \"name\": \"user\"}, {\"type\": \"unknown\"}]")
+            .assertStatus(Status.BAD_REQUEST);
+
+        // array is not closed
+        post(ENDPOINT_ACTIVE_TREATMENTS_BATCH)
+            .entity("[{\"type\": \"user\", \"name\": \"user\"}")
+            .assertStatus(Status.BAD_REQUEST);
+
+        // identity fails validation
+        post(ENDPOINT_ACTIVE_TREATMENTS_BATCH)
+            .entity(Identities.of(userDto, new DeviceDto(null)))
+            .assertStatus(Status.BAD_REQUEST);
+    }
+
+    @Test
+    public void testGetActiveTreatmentsBatchAnswersLaterInvalidIdentities() {
+        final List<IdentityDto> identities = Lists.newArrayList();
+        for (int i = 0; i < ActiveTreatmentsResource.BATCH_SIZE; i++) {
+            identities.add(userDto);
+        }
+        identities.add(new DeviceDto(null));
+        identities.add(deviceDto);
+
+        final List<Object> actual =
+            post(ENDPOINT_ACTIVE_TREATMENTS_BATCH)
+                .entity(Identities.of(identities.toArray(new IdentityDto[identities.size()])))
+                .assertStatus(Status.OK)
+                .result(new GenericType<List<Object>>() { });
+
+        assertEquals(identities.size(), actual.size());
+        assertEquals("invalid identity", actual.get(ActiveTreatmentsResource.BATCH_SIZE));
+        assertTrue(actual.get(ActiveTreatmentsResource.BATCH_SIZE + 1) instanceof Map);
+    }
 }
@@ -53,6 +53,8 @@ public class ExperimentsResourceTest extends ResourceTest {
             new CreateExperimentRequest(
                 "new_experiment",
                 0,
+                null,
+                null,
                 "it's new",
                 null,
                 null,
@@ -81,6 +83,8 @@ public class ExperimentsResourceTest extends ResourceTest {
     public void testUpdateExperiment() {
         final UpdateExperimentRequest request =
             new UpdateExperimentRequest(
+                Optional.<Integer>absent(),
+                Optional.<Integer>absent(),
                 Optional.<Integer>absent(),
                 Optional.of("new description"),
                 Optional.of("device"),
@@ -29,6 +29,8 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.ClassRule;
 
+import javax.validation.Validation;
+import javax.validation.constraints.NotNull;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
@@ -84,6 +86,7 @@ public abstract class ResourceTest {
         mapper.registerSubtypes(UserDto.class, DeviceDto.class);
         final Environment environment = mock(Environment.class);
         doReturn(mapper).when(environment).getObjectMapper();
+        doReturn(Validation.buildDefaultValidatorFactory().getValidator()).when(environment).getValidator();
         final IdentitiesMetadata metadata = new IdentitiesMetadata();
         metadata.put("user", new IdentityMetadata("user", User.class, UserDto.class, UserMapper.class));
         metadata.put("device", new IdentityMetadata("device", Device.class, DeviceDto.class, DeviceMapper.class));
@@ -96,7 +99,7 @@ public abstract class ResourceTest {
                 .addResource(new AllocationsResource(EXPERIMENTS, MAPPER))
                 .addResource(new TreatmentOverridesResource(EXPERIMENTS, MAPPER))
                 .addResource(new ExperimentsResource(EXPERIMENTS, MAPPER))
-                .addResource(new ActiveTreatmentsResource(EXPERIMENTS, MAPPER))
+                .addResource(new ActiveTreatmentsResource(environment, EXPERIMENTS, MAPPER))
                 .addResource(new MetadataResource(environment, metadata, MAPPER))
                 .build();
     }
@@ -265,6 +268,7 @@ public abstract class ResourceTest {
 
     @JsonTypeName("device")
     protected static class DeviceDto extends IdentityDto {
+        @NotNull
         private final String id;
 
         public DeviceDto(@JsonProperty("id") String id) {
@@ -390,6 +390,42 @@ public abstract class ExperimentsStoreProviderTest {
         assertEquals("should have one because of identity type", 1, experiments.getActiveTreatments(identity).size());
     }
 
+    @Test
+    public void testGetActiveTreatmentWithBins() {
+        experiments
+            .create("foo")
+            .setBins(10000)
+            .addTreatment("control")
+            .allocate("control", 10000)
+            .activate()
+            .save();
+
+        assertEquals("number of bins should be persisted", 10000, experiments.get("foo").getBins());
+        assertEquals(
+            "expected control treatment",
+            "control",
+            experiments.getActiveTreatment("foo", new TestIdentity("test")).getName()
+        );
+    }
+
+    @Test
+    public void testGetActiveTreatmentWithHashVersion() {
+        experiments
+            .create("foo")
+            .setHashVersion(Experiment.HASH_VERSION_MIXED)
+            .addTreatment("control")
+            .allocate("control", 100)
+            .activate()
+            .save();
+
+        assertEquals("hash version should be persisted", Experiment.HASH_VERSION_MIXED, experiments.get("foo").getHashVersion());
+        assertEquals(
+            "expected control treatment",
+            "control",
+            experiments.getActiveTreatments(new TestIdentity("test")).values().iterator().next().getName()
+        );
+    }
+
     @Test
     public void testGetActiveExperiments() {
         experiments